@@ -0,0 +1,33 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Changes the kind of every error stored in a method summary cache file to OTHER, so that a
+ * compilation that replays the stored diagnostics succeeds, but one that checks the code again
+ * fails.
+ */
+public class MarkReplayed {
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args[0]);
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] from = "ERROR".getBytes(StandardCharsets.UTF_8);
+        byte[] to = "OTHER".getBytes(StandardCharsets.UTF_8);
+        int count = 0;
+        for (int i = 0; i + from.length <= bytes.length; i++) {
+            boolean matches = true;
+            for (int j = 0; j < from.length && matches; j++) {
+                matches = bytes[i + j] == from[j];
+            }
+            if (matches) {
+                System.arraycopy(to, 0, bytes, i, to.length);
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new Error("No errors are stored in " + file);
+        }
+        Files.write(file, bytes);
+    }
+}
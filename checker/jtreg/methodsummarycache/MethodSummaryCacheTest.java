@@ -0,0 +1,18 @@
+/*
+ * @test
+ * @summary Test -AmethodSummaryCache: the stored diagnostics are replayed for an unchanged method,
+ * an edit invalidates them, and a checker's subcheckers analyze a method whose diagnostics they
+ * replay but the checker does not. Finally, the stored errors are changed into notes, so that the
+ * last compilation succeeds only if it replays them rather than checking the method again.
+ *
+ * @compile/fail -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v1/Summary.java
+ * @compile/fail -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v1/Summary.java
+ * @compile -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v2/Summary.java
+ * @compile -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v2/Summary.java
+ * @compile/fail -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v1/Summary.java
+ * @compile MarkReplayed.java
+ * @run main MarkReplayed summaries.cache
+ * @compile -XDrawDiagnostics -processor org.checkerframework.checker.index.IndexChecker -AmethodSummaryCache=summaries.cache v1/Summary.java
+ */
+
+class MethodSummaryCacheTest {}
@@ -0,0 +1,16 @@
+// The first version: use() is not safe, because index() may return a value that is too large.
+
+import org.checkerframework.checker.index.qual.NonNegative;
+
+class Summary {
+    void use(Indexer indexer, int[] b) {
+        // The Upper Bound Checker needs the array length that the Value Checker infers for a.
+        int[] a = new int[3];
+        a[2] = 1;
+        b[indexer.index(b)] = 1;
+    }
+}
+
+interface Indexer {
+    @NonNegative int index(int[] a);
+}
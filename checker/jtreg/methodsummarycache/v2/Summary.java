@@ -0,0 +1,19 @@
+// The second version: use() is unchanged, but index() has an upper bound. That changes the
+// method summary key of use() for the Index Checker, but not for the Value Checker, one of its
+// subcheckers.
+
+import org.checkerframework.checker.index.qual.LTLengthOf;
+import org.checkerframework.checker.index.qual.NonNegative;
+
+class Summary {
+    void use(Indexer indexer, int[] b) {
+        // The Upper Bound Checker needs the array length that the Value Checker infers for a.
+        int[] a = new int[3];
+        a[2] = 1;
+        b[indexer.index(b)] = 1;
+    }
+}
+
+interface Indexer {
+    @NonNegative @LTLengthOf("#1") int index(int[] a);
+}
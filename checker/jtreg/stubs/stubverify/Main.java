@@ -0,0 +1,27 @@
+/*
+ * @test
+ * @summary Test -AstubVerify: a stub file that declares elements that are not on the classpath
+ * is reported, and a stub file whose declarations all exist is not, even if some of them contain
+ * no annotation.  A member declared in two stub files is reported as redundant.
+ *
+ * @compile/fail -XDrawDiagnostics -processor org.checkerframework.checker.nullness.NullnessChecker -AignorejdkAstub -Astubs=NotFound.astub -AstubVerify -Werror Main.java
+ * @compile -XDrawDiagnostics -processor org.checkerframework.checker.nullness.NullnessChecker -AignorejdkAstub -Astubs=NotFound.astub -Werror Main.java
+ * @compile -XDrawDiagnostics -processor org.checkerframework.checker.nullness.NullnessChecker -AignorejdkAstub -Astubs=Found.astub -AstubVerify -Werror Main.java
+ * @compile/fail -XDrawDiagnostics -processor org.checkerframework.checker.nullness.NullnessChecker -AignorejdkAstub -Astubs=Found.astub:Redundant.astub -AstubVerify -Werror Main.java
+ */
+
+package stubverify;
+
+public class Main {
+    public Object field = new Object();
+
+    public Object annotated(Object o) {
+        return o;
+    }
+
+    public Object unannotated(Object o) {
+        return o;
+    }
+
+    public static class Nested {}
+}
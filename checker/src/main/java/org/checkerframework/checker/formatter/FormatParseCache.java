@@ -0,0 +1,149 @@
+package org.checkerframework.checker.formatter;
+
+import java.util.Collections;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.CollectionUtils;
+
+/**
+ * A bounded cache, shared across compilation units, of the results of parsing format strings. The
+ * Format String Checker and the Internationalization Format String Checker use it so that each
+ * distinct format string is parsed (and trial-formatted) only once, no matter how many times it
+ * appears in the program.
+ *
+ * <p>The parse itself is done by a {@link Parser}, typically {@link
+ * FormatUtil#formatParameterCategories} or {@link
+ * org.checkerframework.checker.i18nformatter.I18nFormatUtil#formatParameterCategories}. Those
+ * utility classes are also distributed in checker-qual and therefore do not cache their results
+ * themselves.
+ *
+ * @param <C> the type of conversion categories that a format string is parsed into
+ */
+public class FormatParseCache<C extends Enum<C>> {
+
+    /**
+     * Parses a format string into its conversion categories.
+     *
+     * @param <C> the type of conversion categories
+     */
+    public interface Parser<C> {
+        /**
+         * Returns the conversion category for every parameter of the format string.
+         *
+         * @param format a format string
+         * @return the conversion category for every parameter of {@code format}
+         * @throws IllegalArgumentException if {@code format} is not a valid format string; the
+         *     exception is an instance of the error type of the cache
+         */
+        C[] parse(String format) throws IllegalArgumentException;
+    }
+
+    /**
+     * The result of parsing a format string: either the conversion categories of a valid format
+     * string, or the error message for an invalid one.
+     *
+     * @param <C> the type of conversion categories
+     */
+    public static final class ParseResult<C> {
+        /** The conversion categories, or null if the format string is invalid. */
+        private final C @Nullable [] categories;
+
+        /** The error message, or null if the format string is valid. */
+        private final @Nullable String errorMessage;
+
+        /**
+         * Creates a new ParseResult.
+         *
+         * @param categories the conversion categories, or null if the format string is invalid
+         * @param errorMessage the error message, or null if the format string is valid
+         */
+        private ParseResult(C @Nullable [] categories, @Nullable String errorMessage) {
+            this.categories = categories;
+            this.errorMessage = errorMessage;
+        }
+
+        /**
+         * Returns true if the format string is valid.
+         *
+         * @return true if the format string is valid
+         */
+        public boolean isValid() {
+            return categories != null;
+        }
+
+        /**
+         * Returns a fresh copy of the conversion categories of a valid format string.
+         *
+         * @return the conversion categories of the format string
+         */
+        public C[] getCategories() {
+            if (categories == null) {
+                throw new IllegalStateException("invalid format string: " + errorMessage);
+            }
+            return categories.clone();
+        }
+
+        /**
+         * Returns the error message for an invalid format string.
+         *
+         * @return the error message for an invalid format string
+         */
+        public @Nullable String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /** Size of the cache. */
+    private static final int CACHE_SIZE = 1000;
+
+    /** The parser. */
+    private final Parser<C> parser;
+
+    /**
+     * The type of exception by which {@link #parser} reports an invalid format string. Other
+     * exceptions are not caught.
+     */
+    private final Class<? extends IllegalArgumentException> errorType;
+
+    /** Maps a format string to the result of parsing it. */
+    private final Map<String, ParseResult<C>> cache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(CACHE_SIZE));
+
+    /**
+     * Creates a new FormatParseCache.
+     *
+     * @param parser the parser whose results to cache
+     * @param errorType the type of exception by which {@code parser} reports an invalid format
+     *     string
+     */
+    public FormatParseCache(
+            Parser<C> parser, Class<? extends IllegalArgumentException> errorType) {
+        this.parser = parser;
+        this.errorType = errorType;
+    }
+
+    /**
+     * Returns the result of parsing the given format string, parsing it only if it is not already
+     * in the cache.
+     *
+     * @param format a format string
+     * @return the result of parsing {@code format}
+     * @throws IllegalArgumentException if the parser throws an exception that is not of the error
+     *     type
+     */
+    public ParseResult<C> parse(String format) {
+        ParseResult<C> result = cache.get(format);
+        if (result == null) {
+            try {
+                result = new ParseResult<>(parser.parse(format), null);
+            } catch (IllegalArgumentException e) {
+                if (!errorType.isInstance(e)) {
+                    throw e;
+                }
+                result = new ParseResult<>(null, e.getMessage());
+            }
+            cache.put(format, result);
+        }
+        return result;
+    }
+}
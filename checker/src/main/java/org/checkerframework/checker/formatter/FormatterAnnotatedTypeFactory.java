@@ -2,7 +2,6 @@ package org.checkerframework.checker.formatter;
 
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.Tree;
-import java.util.IllegalFormatException;
 import javax.lang.model.element.AnnotationMirror;
 import org.checkerframework.checker.formatter.qual.ConversionCategory;
 import org.checkerframework.checker.formatter.qual.Format;
@@ -77,18 +76,9 @@ public class FormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     format = Character.toString((Character) tree.getValue());
                 }
                 if (format != null) {
-                    AnnotationMirror anno;
-                    try {
-                        ConversionCategory[] cs = FormatUtil.formatParameterCategories(format);
-                        anno =
-                                FormatterAnnotatedTypeFactory.this.treeUtil
-                                        .categoriesToFormatAnnotation(cs);
-                    } catch (IllegalFormatException e) {
-                        anno =
-                                FormatterAnnotatedTypeFactory.this.treeUtil
-                                        .exceptionToInvalidFormatAnnotation(e);
-                    }
-                    type.addAnnotation(anno);
+                    type.addAnnotation(
+                            FormatterAnnotatedTypeFactory.this.treeUtil.formatStringToAnnotation(
+                                    format));
                 }
             }
             return super.visitLiteral(tree, type);
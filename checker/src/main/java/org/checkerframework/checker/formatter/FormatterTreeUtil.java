@@ -5,9 +5,11 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeCastTree;
 import com.sun.source.util.SimpleTreeVisitor;
+import java.util.Arrays;
 import java.util.IllegalFormatException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
@@ -21,6 +23,7 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.SimpleElementVisitor7;
 import javax.lang.model.util.SimpleTypeVisitor7;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
+import org.checkerframework.checker.formatter.FormatParseCache.ParseResult;
 import org.checkerframework.checker.formatter.qual.ConversionCategory;
 import org.checkerframework.checker.formatter.qual.Format;
 import org.checkerframework.checker.formatter.qual.FormatMethod;
@@ -36,6 +39,7 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -46,6 +50,26 @@ public class FormatterTreeUtil {
     public final BaseTypeChecker checker;
     public final ProcessingEnvironment processingEnv;
 
+    /** The parsed format strings, shared across compilation units. */
+    private static final FormatParseCache<ConversionCategory> formatParseCache =
+            new FormatParseCache<>(
+                    FormatUtil::formatParameterCategories, IllegalFormatException.class);
+
+    /** Size of the annotation caches. */
+    private static final int ANNOTATION_CACHE_SIZE = 300;
+
+    /** Maps a format string to its {@link Format} or {@link InvalidFormat} annotation. */
+    private final Map<String, AnnotationMirror> formatStringToAnnotationCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
+    /** Maps a list of conversion categories to the {@link Format} annotation with that value. */
+    private final Map<List<ConversionCategory>, AnnotationMirror> categoriesToAnnotationCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
+    /** Maps a {@link Format} annotation to its value. */
+    private final Map<AnnotationMirror, ConversionCategory[]> annotationToCategoriesCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
     // private final ExecutableElement formatArgTypesElement;
 
     public FormatterTreeUtil(BaseTypeChecker checker) {
@@ -375,6 +399,28 @@ public class FormatterTreeUtil {
         checker.reportWarning(res.location, msgKey, args);
     }
 
+    /**
+     * Returns the {@link Format} annotation for the given format string, or an {@link
+     * InvalidFormat} annotation if the format string is invalid. The format string is parsed at
+     * most once per compilation and the result is shared with later compilations.
+     *
+     * @param format a format string
+     * @return the {@link Format} or {@link InvalidFormat} annotation for {@code format}
+     */
+    public AnnotationMirror formatStringToAnnotation(String format) {
+        AnnotationMirror anno = formatStringToAnnotationCache.get(format);
+        if (anno == null) {
+            ParseResult<ConversionCategory> parsed = formatParseCache.parse(format);
+            if (parsed.isValid()) {
+                anno = categoriesToFormatAnnotation(parsed.getCategories());
+            } else {
+                anno = stringToInvalidFormatAnnotation(parsed.getErrorMessage());
+            }
+            formatStringToAnnotationCache.put(format, anno);
+        }
+        return anno;
+    }
+
     /**
      * Takes an exception that describes an invalid formatter string and, returns a syntax trees
      * element that represents a {@link InvalidFormat} annotation with the exception's error message
@@ -409,10 +455,17 @@ public class FormatterTreeUtil {
      * represents a {@link Format} annotation with the list as value.
      */
     public AnnotationMirror categoriesToFormatAnnotation(ConversionCategory[] args) {
-        AnnotationBuilder builder =
-                new AnnotationBuilder(processingEnv, Format.class.getCanonicalName());
-        builder.setValue("value", args);
-        return builder.build();
+        List<ConversionCategory> key = Arrays.asList(args.clone());
+        AnnotationMirror anno = categoriesToAnnotationCache.get(key);
+        if (anno == null) {
+            AnnotationBuilder builder =
+                    new AnnotationBuilder(processingEnv, Format.class.getCanonicalName());
+            builder.setValue("value", args);
+            anno = builder.build();
+            categoriesToAnnotationCache.put(key, anno);
+            annotationToCategoriesCache.put(anno, args.clone());
+        }
+        return anno;
     }
 
     /**
@@ -420,10 +473,15 @@ public class FormatterTreeUtil {
      * value.
      */
     public ConversionCategory[] formatAnnotationToCategories(AnnotationMirror anno) {
-        List<ConversionCategory> list =
-                AnnotationUtils.getElementValueEnumArray(
-                        anno, "value", ConversionCategory.class, false);
-        return list.toArray(new ConversionCategory[] {});
+        ConversionCategory[] categories = annotationToCategoriesCache.get(anno);
+        if (categories == null) {
+            List<ConversionCategory> list =
+                    AnnotationUtils.getElementValueEnumArray(
+                            anno, "value", ConversionCategory.class, false);
+            categories = list.toArray(new ConversionCategory[] {});
+            annotationToCategoriesCache.put(anno, categories);
+        }
+        return categories.clone();
     }
 
     /** Converts a TypeMirror to a Class. */
@@ -194,19 +194,9 @@ public class I18nFormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory
                     format = Character.toString((Character) tree.getValue());
                 }
                 if (format != null) {
-                    AnnotationMirror anno;
-                    try {
-                        I18nConversionCategory[] cs =
-                                I18nFormatUtil.formatParameterCategories(format);
-                        anno =
-                                I18nFormatterAnnotatedTypeFactory.this.treeUtil
-                                        .categoriesToFormatAnnotation(cs);
-                    } catch (IllegalArgumentException e) {
-                        anno =
-                                I18nFormatterAnnotatedTypeFactory.this.treeUtil
-                                        .exceptionToInvalidFormatAnnotation(e);
-                    }
-                    type.addAnnotation(anno);
+                    type.addAnnotation(
+                            I18nFormatterAnnotatedTypeFactory.this.treeUtil
+                                    .formatStringToAnnotation(format));
                 }
             }
 
@@ -5,6 +5,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeCastTree;
 import com.sun.source.util.SimpleTreeVisitor;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -21,6 +22,8 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.SimpleElementVisitor7;
 import javax.lang.model.util.SimpleTypeVisitor7;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
+import org.checkerframework.checker.formatter.FormatParseCache;
+import org.checkerframework.checker.formatter.FormatParseCache.ParseResult;
 import org.checkerframework.checker.formatter.FormatterTreeUtil.InvocationType;
 import org.checkerframework.checker.formatter.FormatterTreeUtil.Result;
 import org.checkerframework.checker.i18nformatter.qual.I18nChecksFormat;
@@ -46,6 +49,7 @@ import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressio
 import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressionParseException;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -58,6 +62,29 @@ public class I18nFormatterTreeUtil {
     public final BaseTypeChecker checker;
     public final ProcessingEnvironment processingEnv;
 
+    /** The parsed i18n format strings, shared across compilation units. */
+    private static final FormatParseCache<I18nConversionCategory> formatParseCache =
+            new FormatParseCache<>(
+                    I18nFormatUtil::formatParameterCategories, IllegalArgumentException.class);
+
+    /** Size of the annotation caches. */
+    private static final int ANNOTATION_CACHE_SIZE = 300;
+
+    /** Maps a format string to its {@link I18nFormat} or {@link I18nInvalidFormat} annotation. */
+    private final Map<String, AnnotationMirror> formatStringToAnnotationCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
+    /**
+     * Maps a list of conversion categories to the {@link I18nFormat} annotation with that
+     * value.
+     */
+    private final Map<List<I18nConversionCategory>, AnnotationMirror> categoriesToAnnotationCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
+    /** Maps an {@link I18nFormat} annotation to its value. */
+    private final Map<AnnotationMirror, I18nConversionCategory[]> annotationToCategoriesCache =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
     public I18nFormatterTreeUtil(BaseTypeChecker checker) {
         this.checker = checker;
         this.processingEnv = checker.getProcessingEnvironment();
@@ -70,6 +97,28 @@ public class I18nFormatterTreeUtil {
         I18NFORMATFOR
     }
 
+    /**
+     * Returns the {@link I18nFormat} annotation for the given format string, or an {@link
+     * I18nInvalidFormat} annotation if the format string is invalid. The format string is parsed at
+     * most once per compilation and the result is shared with later compilations.
+     *
+     * @param format a format string
+     * @return the {@link I18nFormat} or {@link I18nInvalidFormat} annotation for {@code format}
+     */
+    public AnnotationMirror formatStringToAnnotation(String format) {
+        AnnotationMirror anno = formatStringToAnnotationCache.get(format);
+        if (anno == null) {
+            ParseResult<I18nConversionCategory> parsed = formatParseCache.parse(format);
+            if (parsed.isValid()) {
+                anno = categoriesToFormatAnnotation(parsed.getCategories());
+            } else {
+                anno = stringToInvalidFormatAnnotation(parsed.getErrorMessage());
+            }
+            formatStringToAnnotationCache.put(format, anno);
+        }
+        return anno;
+    }
+
     /**
      * Takes an exception that describes an invalid formatter string and returns a syntax trees
      * element that represents a {@link I18nInvalidFormat} annotation with the exception's error
@@ -104,10 +153,17 @@ public class I18nFormatterTreeUtil {
      * represents a {@link I18nFormat} annotation with the list as value.
      */
     public AnnotationMirror categoriesToFormatAnnotation(I18nConversionCategory[] args) {
-        AnnotationBuilder builder =
-                new AnnotationBuilder(processingEnv, I18nFormat.class.getCanonicalName());
-        builder.setValue("value", args);
-        return builder.build();
+        List<I18nConversionCategory> key = Arrays.asList(args.clone());
+        AnnotationMirror anno = categoriesToAnnotationCache.get(key);
+        if (anno == null) {
+            AnnotationBuilder builder =
+                    new AnnotationBuilder(processingEnv, I18nFormat.class.getCanonicalName());
+            builder.setValue("value", args);
+            anno = builder.build();
+            categoriesToAnnotationCache.put(key, anno);
+            annotationToCategoriesCache.put(anno, args.clone());
+        }
+        return anno;
     }
 
     /**
@@ -115,10 +171,15 @@ public class I18nFormatterTreeUtil {
      * value.
      */
     public I18nConversionCategory[] formatAnnotationToCategories(AnnotationMirror anno) {
-        List<I18nConversionCategory> list =
-                AnnotationUtils.getElementValueEnumArray(
-                        anno, "value", I18nConversionCategory.class, false);
-        return list.toArray(new I18nConversionCategory[] {});
+        I18nConversionCategory[] categories = annotationToCategoriesCache.get(anno);
+        if (categories == null) {
+            List<I18nConversionCategory> list =
+                    AnnotationUtils.getElementValueEnumArray(
+                            anno, "value", I18nConversionCategory.class, false);
+            categories = list.toArray(new I18nConversionCategory[] {});
+            annotationToCategoriesCache.put(anno, categories);
+        }
+        return categories.clone();
     }
 
     /**
@@ -211,7 +272,11 @@ public class I18nFormatterTreeUtil {
             String s = ((StringLiteralNode) firstParam).getValue();
             if (translations.containsKey(s)) {
                 String value = translations.get(s);
-                ret = new Result<>(I18nFormatUtil.formatParameterCategories(value), node.getTree());
+                ParseResult<I18nConversionCategory> parsed = formatParseCache.parse(value);
+                if (!parsed.isValid()) {
+                    throw new IllegalArgumentException(parsed.getErrorMessage());
+                }
+                ret = new Result<>(parsed.getCategories(), node.getTree());
             }
         }
         return ret;
@@ -9,10 +9,10 @@ import com.sun.source.tree.Tree;
 import java.lang.annotation.Annotation;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.checker.regex.RegexCache.RegexInfo;
 import org.checkerframework.checker.regex.qual.PartialRegex;
 import org.checkerframework.checker.regex.qual.PolyRegex;
 import org.checkerframework.checker.regex.qual.Regex;
@@ -20,7 +20,6 @@ import org.checkerframework.checker.regex.qual.RegexBottom;
 import org.checkerframework.checker.regex.qual.UnknownRegex;
 import org.checkerframework.common.basetype.BaseAnnotatedTypeFactory;
 import org.checkerframework.common.basetype.BaseTypeChecker;
-import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.framework.flow.CFAbstractAnalysis;
 import org.checkerframework.framework.flow.CFAnalysis;
 import org.checkerframework.framework.flow.CFStore;
@@ -219,22 +218,12 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     /** Returns the number of groups in the given regex String. */
     public static int getGroupCount(@Regex String regexp) {
-        return Pattern.compile(regexp).matcher("").groupCount();
-    }
-
-    /**
-     * This method is a copy of RegexUtil.isRegex. We cannot directly use RegexUtil, because it uses
-     * type annotations which cannot be used in IDEs (yet).
-     */
-    @SuppressWarnings("purity") // the checker cannot prove that the method is pure, but it is
-    @Pure
-    private static boolean isRegex(String s) {
-        try {
-            Pattern.compile(s);
-        } catch (PatternSyntaxException e) {
-            return false;
+        RegexInfo info = RegexCache.get(regexp);
+        if (!info.isRegex) {
+            // Throw the same exception as Pattern.compile would.
+            Pattern.compile(regexp);
         }
-        return true;
+        return info.groupCount;
     }
 
     @Override
@@ -281,9 +270,9 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     regex = Character.toString((Character) tree.getValue());
                 }
                 if (regex != null) {
-                    if (isRegex(regex)) {
-                        int groupCount = getGroupCount(regex);
-                        type.addAnnotation(createRegexAnnotation(groupCount));
+                    RegexInfo info = RegexCache.get(regex);
+                    if (info.isRegex) {
+                        type.addAnnotation(createRegexAnnotation(info.groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(regex));
                     }
@@ -324,9 +313,10 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     String lRegex = getPartialRegexValue(lExpr);
                     String rRegex = getPartialRegexValue(rExpr);
                     String concat = lRegex + rRegex;
-                    if (isRegex(concat)) {
-                        int groupCount = getGroupCount(concat);
-                        type.addAnnotation(createRegexAnnotation(groupCount));
+                    // Only rRegex is re-scanned; see RegexCache.
+                    RegexInfo info = RegexCache.getConcatenation(lRegex, rRegex);
+                    if (info.isRegex) {
+                        type.addAnnotation(createRegexAnnotation(info.groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(concat));
                     }
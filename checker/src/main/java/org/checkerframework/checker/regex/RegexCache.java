@@ -0,0 +1,272 @@
+package org.checkerframework.checker.regex;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.checkerframework.javacutil.CollectionUtils;
+
+/**
+ * A bounded cache, shared across compilation units, of the properties of String values that the
+ * Regex Checker computes: whether the String is a valid regular expression and, if so, its group
+ * count.
+ *
+ * <p>Each entry also records a lexical summary of the String (nesting depth of groups and
+ * character classes, pending escapes and quotes). When two strings are concatenated, the summary
+ * of the concatenation is computed by scanning only the right operand, starting from the summary
+ * of the left operand. A concatenation whose summary shows that it cannot be a valid regular
+ * expression (for example, because it contains an unclosed group) is rejected without calling
+ * {@link Pattern#compile}. This makes building a long regular expression piece by piece linear
+ * rather than quadratic in the number of pieces.
+ */
+/*package-private*/ final class RegexCache {
+
+    /** Size of the cache. */
+    private static final int CACHE_SIZE = 2000;
+
+    /** Maps a String to its {@link RegexInfo}. */
+    private static final Map<String, RegexInfo> cache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(CACHE_SIZE));
+
+    /** Do not instantiate. */
+    private RegexCache() {
+        throw new Error("Do not instantiate");
+    }
+
+    /**
+     * Returns the regex information for the given String, computing it if necessary.
+     *
+     * @param s a String that might be a regular expression
+     * @return the regex information for {@code s}
+     */
+    static RegexInfo get(String s) {
+        RegexInfo info = cache.get(s);
+        if (info == null) {
+            info = compute(s, ScanState.scan(ScanState.INITIAL, s));
+            cache.put(s, info);
+        }
+        return info;
+    }
+
+    /**
+     * Returns the regex information for the concatenation {@code left + right}. The lexical
+     * summary of the result is computed incrementally from the summary of {@code left}, so only
+     * {@code right} is scanned.
+     *
+     * @param left the left operand of the concatenation
+     * @param right the right operand of the concatenation
+     * @return the regex information for {@code left + right}
+     */
+    static RegexInfo getConcatenation(String left, String right) {
+        String concat = left + right;
+        RegexInfo info = cache.get(concat);
+        if (info == null) {
+            ScanState leftState = get(left).scanState;
+            info = compute(concat, ScanState.scan(leftState, right));
+            cache.put(concat, info);
+        }
+        return info;
+    }
+
+    /**
+     * Computes the regex information for a String whose lexical summary is already known. Calls
+     * {@link Pattern#compile} only if the summary does not already show that the String is
+     * invalid.
+     */
+    private static RegexInfo compute(String s, ScanState scanState) {
+        if (scanState.isDefinitelyInvalid()) {
+            return new RegexInfo(false, -1, scanState);
+        }
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(s);
+        } catch (PatternSyntaxException e) {
+            return new RegexInfo(false, -1, scanState);
+        }
+        return new RegexInfo(true, pattern.matcher("").groupCount(), scanState);
+    }
+
+    /** The cached properties of a String. */
+    static final class RegexInfo {
+        /** True if the String is a valid regular expression. */
+        final boolean isRegex;
+
+        /** The group count of the regular expression, or -1 if the String is not a regex. */
+        final int groupCount;
+
+        /** The lexical summary of the String. */
+        private final ScanState scanState;
+
+        /**
+         * Creates a new RegexInfo.
+         *
+         * @param isRegex true if the String is a valid regular expression
+         * @param groupCount the group count, or -1 if the String is not a regex
+         * @param scanState the lexical summary of the String
+         */
+        private RegexInfo(boolean isRegex, int groupCount, ScanState scanState) {
+            this.isRegex = isRegex;
+            this.groupCount = groupCount;
+            this.scanState = scanState;
+        }
+    }
+
+    /**
+     * A conservative lexical summary of a prefix of a regular expression. It is used only to
+     * reject Strings that certainly are not regular expressions; when the summary cannot tell, the
+     * String is compiled. Constructs that the scanner does not model precisely, such as comments
+     * (which change the meaning of parentheses) or a {@code ]} at the start of a character class,
+     * make the summary {@link #unknown}.
+     */
+    private static final class ScanState {
+
+        /** The state at the beginning of a String. */
+        static final ScanState INITIAL = new ScanState();
+
+        /** Number of open groups. */
+        int groupDepth;
+
+        /** Number of open (possibly nested) character classes. */
+        int classDepth;
+
+        /**
+         * 1 if the previous character opened a character class, 2 if the previous characters were
+         * {@code [^}, and 0 otherwise.
+         */
+        int classStart;
+
+        /** True if the previous character is an unconsumed backslash. */
+        boolean escape;
+
+        /** True if the previous characters are {@code \c}, which take the next one literally. */
+        boolean controlEscape;
+
+        /** True if within a {@code \Q...\E} quotation. */
+        boolean quote;
+
+        /** True if within a quotation and the previous character is a backslash. */
+        boolean quoteEscape;
+
+        /** True if a {@code )} without a matching {@code (} was seen. */
+        boolean unmatchedClose;
+
+        /** True if the scanner cannot summarize the String. */
+        boolean unknown;
+
+        /**
+         * Returns true if no String that has this summary is a valid regular expression.
+         *
+         * @return true if the summarized String is certainly not a regular expression
+         */
+        boolean isDefinitelyInvalid() {
+            if (unknown) {
+                return false;
+            }
+            return unmatchedClose || groupDepth > 0 || classDepth > 0 || escape;
+        }
+
+        /**
+         * Returns the summary of {@code s} appended to a String whose summary is {@code state}.
+         *
+         * @param state the summary of the preceding text
+         * @param s the text to scan
+         * @return the summary after scanning {@code s}
+         */
+        static ScanState scan(ScanState state, String s) {
+            if (state.unknown || state.unmatchedClose) {
+                // Neither can change, regardless of what follows.
+                return state;
+            }
+            ScanState result = state.copy();
+            for (int i = 0; i < s.length() && !result.unknown && !result.unmatchedClose; i++) {
+                result.step(s.charAt(i));
+            }
+            return result;
+        }
+
+        /** Returns a copy of this. */
+        private ScanState copy() {
+            ScanState result = new ScanState();
+            result.groupDepth = groupDepth;
+            result.classDepth = classDepth;
+            result.classStart = classStart;
+            result.escape = escape;
+            result.controlEscape = controlEscape;
+            result.quote = quote;
+            result.quoteEscape = quoteEscape;
+            result.unmatchedClose = unmatchedClose;
+            result.unknown = unknown;
+            return result;
+        }
+
+        /** Updates this summary to account for the next character {@code c}. */
+        private void step(char c) {
+            if (quote) {
+                if (quoteEscape && c == 'E') {
+                    quote = false;
+                    quoteEscape = false;
+                } else {
+                    quoteEscape = (c == '\\');
+                }
+                return;
+            }
+            if (controlEscape) {
+                controlEscape = false;
+                classStart = 0;
+                return;
+            }
+            if (escape) {
+                escape = false;
+                quote = (c == 'Q');
+                controlEscape = (c == 'c');
+                classStart = 0;
+                return;
+            }
+            if (c == '\\') {
+                escape = true;
+                return;
+            }
+            if (c == '#') {
+                // Starts a comment if the COMMENTS flag is set, for example by "(?x)".
+                unknown = true;
+                return;
+            }
+            if (classDepth > 0) {
+                if (c == '[') {
+                    classDepth++;
+                    classStart = 1;
+                } else if (c == ']') {
+                    if (classStart != 0) {
+                        // A "]" at the start of a character class is a literal.
+                        unknown = true;
+                    } else {
+                        classDepth--;
+                    }
+                } else if (c == '^' && classStart == 1) {
+                    classStart = 2;
+                } else {
+                    classStart = 0;
+                }
+                return;
+            }
+            switch (c) {
+                case '[':
+                    classDepth = 1;
+                    classStart = 1;
+                    break;
+                case '(':
+                    groupDepth++;
+                    break;
+                case ')':
+                    if (groupDepth == 0) {
+                        unmatchedClose = true;
+                    } else {
+                        groupDepth--;
+                    }
+                    break;
+                default:
+                    // Nothing to do for other characters.
+            }
+        }
+    }
+}
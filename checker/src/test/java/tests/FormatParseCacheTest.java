@@ -0,0 +1,107 @@
+package tests;
+
+import java.util.IllegalFormatException;
+import org.checkerframework.checker.formatter.FormatParseCache;
+import org.checkerframework.checker.formatter.FormatParseCache.ParseResult;
+import org.checkerframework.checker.formatter.FormatUtil;
+import org.checkerframework.checker.formatter.qual.ConversionCategory;
+import org.checkerframework.checker.i18nformatter.I18nFormatUtil;
+import org.checkerframework.checker.i18nformatter.qual.I18nConversionCategory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FormatParseCacheTest {
+
+    /** The number of times that {@link #countingParse} has been called. */
+    private int parseCount = 0;
+
+    /**
+     * Parses a format string with {@link FormatUtil#formatParameterCategories}, counting the
+     * calls.
+     *
+     * @param format a format string
+     * @return the conversion categories of {@code format}
+     */
+    private ConversionCategory[] countingParse(String format) {
+        parseCount++;
+        return FormatUtil.formatParameterCategories(format);
+    }
+
+    @Test
+    public void validFormat() {
+        FormatParseCache<ConversionCategory> cache =
+                new FormatParseCache<>(this::countingParse, IllegalFormatException.class);
+        ParseResult<ConversionCategory> result = cache.parse("%s %d");
+        Assert.assertTrue(result.isValid());
+        Assert.assertArrayEquals(
+                new ConversionCategory[] {ConversionCategory.GENERAL, ConversionCategory.INT},
+                result.getCategories());
+        Assert.assertSame(result, cache.parse("%s %d"));
+        Assert.assertEquals(1, parseCount);
+
+        // The categories are copied, so clients cannot change the cached result.
+        result.getCategories()[0] = ConversionCategory.NULL;
+        Assert.assertEquals(ConversionCategory.GENERAL, result.getCategories()[0]);
+    }
+
+    @Test
+    public void invalidFormat() {
+        FormatParseCache<ConversionCategory> cache =
+                new FormatParseCache<>(this::countingParse, IllegalFormatException.class);
+        String message = null;
+        try {
+            FormatUtil.formatParameterCategories("%y");
+            Assert.fail("%y is a valid format string");
+        } catch (IllegalFormatException e) {
+            message = e.getMessage();
+        }
+        parseCount = 0;
+        ParseResult<ConversionCategory> result = cache.parse("%y");
+        Assert.assertFalse(result.isValid());
+        Assert.assertEquals(message, result.getErrorMessage());
+        Assert.assertSame(result, cache.parse("%y"));
+        Assert.assertEquals(1, parseCount);
+    }
+
+    @Test
+    public void otherExceptionIsNotCached() {
+        FormatParseCache<ConversionCategory> cache =
+                new FormatParseCache<>(
+                        format -> {
+                            parseCount++;
+                            throw new IllegalArgumentException("not a format error");
+                        },
+                        IllegalFormatException.class);
+        for (int i = 1; i <= 2; i++) {
+            try {
+                cache.parse("%s");
+                Assert.fail("the parser's exception was caught");
+            } catch (IllegalFormatException e) {
+                Assert.fail("the parser's exception was wrapped");
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("not a format error", e.getMessage());
+            }
+            Assert.assertEquals(i, parseCount);
+        }
+    }
+
+    @Test
+    public void i18nFormat() {
+        FormatParseCache<I18nConversionCategory> cache =
+                new FormatParseCache<>(
+                        I18nFormatUtil::formatParameterCategories, IllegalArgumentException.class);
+        ParseResult<I18nConversionCategory> valid = cache.parse("{0} and {1,number}");
+        Assert.assertTrue(valid.isValid());
+        Assert.assertArrayEquals(
+                new I18nConversionCategory[] {
+                    I18nConversionCategory.GENERAL, I18nConversionCategory.NUMBER
+                },
+                valid.getCategories());
+        Assert.assertSame(valid, cache.parse("{0} and {1,number}"));
+
+        ParseResult<I18nConversionCategory> invalid = cache.parse("{0");
+        Assert.assertFalse(invalid.isValid());
+        Assert.assertNotNull(invalid.getErrorMessage());
+        Assert.assertSame(invalid, cache.parse("{0"));
+    }
+}
@@ -0,0 +1,67 @@
+// Test that the type arguments of a generic method invocation are inferred the same way whether
+// or not the result of an earlier inference with the same inputs is reused.
+
+import java.util.Arrays;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+class InferenceCache {
+
+    static <T> T id(T t) {
+        return t;
+    }
+
+    void sameInputs(String s) {
+        // The first invocations are inferred, the later ones may reuse their result.
+        @NonNull String s1 = id(s);
+        @NonNull String s2 = id(s);
+        @NonNull String s3 = id(s);
+        @NonNull String s4 = id(s);
+    }
+
+    void differentArguments(@Nullable String n, String s) {
+        @NonNull String s1 = id(s);
+        @NonNull String s2 = id(s);
+        // :: error: (assignment.type.incompatible)
+        @NonNull String n1 = id(n);
+        // :: error: (assignment.type.incompatible)
+        @NonNull String n2 = id(n);
+        // :: error: (assignment.type.incompatible)
+        @NonNull String n3 = id(n);
+        @NonNull String s3 = id(s);
+    }
+
+    void differentContexts(@Nullable String n, String s) {
+        @Nullable String m1 = id(s);
+        @Nullable String m2 = id(s);
+        @Nullable String m3 = id(n);
+        @Nullable String m4 = id(n);
+        @NonNull String s1 = id(s);
+        // :: error: (assignment.type.incompatible)
+        @NonNull String n1 = id(n);
+    }
+
+    void noContext(@Nullable String n, String s) {
+        // Invocations without an assignment context, such as receivers and expression statements.
+        id(s).toString();
+        id(s).toString();
+        id(s).toString();
+        // :: error: (dereference.of.nullable)
+        id(n).toString();
+        // :: error: (dereference.of.nullable)
+        id(n).toString();
+        // :: error: (dereference.of.nullable)
+        id(n).toString();
+        id(n);
+        id(n);
+    }
+
+    void lists(@Nullable String n, String s) {
+        List<@Nullable String> l1 = Arrays.asList(n, s);
+        List<@Nullable String> l2 = Arrays.asList(n, s);
+        List<@Nullable String> l3 = Arrays.asList(n, s);
+        List<@NonNull String> l4 = Arrays.asList(s, s);
+        List<@NonNull String> l5 = Arrays.asList(s, s);
+    }
+}
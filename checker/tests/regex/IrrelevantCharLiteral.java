@@ -0,0 +1,30 @@
+// Test that the tree annotator still annotates char literals, whose type is not relevant to the
+// Regex Checker, and that such annotations still flow through char variables.
+
+import org.checkerframework.checker.regex.qual.Regex;
+
+public class IrrelevantCharLiteral {
+
+    void literals() {
+        @Regex String s1 = "rege" + 'x';
+        @Regex String s2 = 'r' + "egex";
+
+        // :: error: (assignment.type.incompatible)
+        @Regex String s4 = "rege" + '(';
+    }
+
+    void variables() {
+        char c = 'x';
+        @Regex String s1 = "rege" + c;
+
+        char d = '(';
+        // :: error: (assignment.type.incompatible)
+        @Regex String s2 = "rege" + d;
+    }
+
+    void unrelated(Object o, int i) {
+        // Irrelevant types that no tree annotator annotates are unchanged.
+        Object o2 = o;
+        int j = i + 1;
+    }
+}
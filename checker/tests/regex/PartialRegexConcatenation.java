@@ -0,0 +1,25 @@
+import org.checkerframework.checker.regex.qual.Regex;
+
+public class PartialRegexConcatenation {
+    void concatenations() {
+        @Regex(2) String groups = "(" + "a" + "(" + "b" + ")" + "c" + ")";
+        @Regex String quoted = "(\\Q" + ")\\E" + ")";
+        @Regex String classes = "[" + "(" + "]";
+        @Regex String escapedParen = "\\" + "(";
+        // The character after "\\c" is taken literally.
+        @Regex String controlParen = "\\c(";
+        @Regex String controlClose = "\\c)";
+        @Regex String controlBracket = "\\c[";
+        @Regex String controlBackslash = "x\\c\\";
+        @Regex String controlConcatenation = "a" + "\\c" + "(" + "\\c" + "\\";
+
+        // :: error: (assignment.type.incompatible)
+        @Regex String unclosedGroup = "(" + "a" + "(" + ")";
+        // :: error: (assignment.type.incompatible)
+        @Regex String unclosedClass = "[" + "a" + "[b" + "]";
+        // :: error: (assignment.type.incompatible)
+        @Regex String danglingEscape = "a" + "\\";
+        // :: error: (assignment.type.incompatible)
+        @Regex String unmatchedClose = ")" + "(";
+    }
+}
@@ -3,6 +3,7 @@ package org.checkerframework.dataflow.analysis;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -65,6 +66,13 @@ public abstract class AbstractAnalysis<
     /** Abstract values of nodes. */
     protected final IdentityHashMap<Node, V> nodeValues;
 
+    /**
+     * The nodes in {@link #nodeValues} whose value is not refined: that is, the value is exactly
+     * what a client computes for the node's tree without dataflow information. See {@link
+     * #isUnrefinedValue}.
+     */
+    protected final Set<Node> unrefinedNodes;
+
     /** Map from (effectively final) local variable elements to their abstract value. */
     protected final HashMap<Element, V> finalLocalValues;
 
@@ -126,6 +134,7 @@ public abstract class AbstractAnalysis<
         this.inputs = new IdentityHashMap<>();
         this.worklist = new Worklist(this.direction);
         this.nodeValues = new IdentityHashMap<>();
+        this.unrefinedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
         this.finalLocalValues = new HashMap<>();
     }
 
@@ -170,10 +179,12 @@ public abstract class AbstractAnalysis<
         }
         return new AnalysisResult<>(
                 nodeValues,
+                unrefinedNodes,
                 inputs,
                 cfg.getTreeLookup(),
                 cfg.getUnaryAssignNodeLookup(),
-                finalLocalValues);
+                finalLocalValues,
+                new IdentityHashMap<>());
     }
 
     @Override
@@ -374,6 +385,7 @@ public abstract class AbstractAnalysis<
     protected void initFields(ControlFlowGraph cfg) {
         inputs.clear();
         nodeValues.clear();
+        unrefinedNodes.clear();
         finalLocalValues.clear();
         this.cfg = cfg;
     }
@@ -393,10 +405,30 @@ public abstract class AbstractAnalysis<
             V oldVal = nodeValues.get(node);
             nodeValues.put(node, newVal);
             nodeValueChanged = !Objects.equals(oldVal, newVal);
+            if (isUnrefinedValue(node, newVal)) {
+                unrefinedNodes.add(node);
+            } else {
+                unrefinedNodes.remove(node);
+            }
         }
         return nodeValueChanged || transferResult.storeChanged();
     }
 
+    /**
+     * Returns true if {@code value}, which the transfer function just computed for {@code node},
+     * is not refined: that is, it is exactly the value that a client of the analysis result
+     * computes for the node's tree without dataflow information, so the client need not look up
+     * the node's value in the analysis result. This implementation returns false, which is always
+     * safe.
+     *
+     * @param node a node
+     * @param value the value that the transfer function computed for {@code node}
+     * @return true if {@code value} is not refined
+     */
+    protected boolean isUnrefinedValue(Node node, V value) {
+        return false;
+    }
+
     /**
      * Read the store for a particular basic block from a map of stores (or {@code null} if none
      * exists yet).
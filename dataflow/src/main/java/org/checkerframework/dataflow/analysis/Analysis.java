@@ -65,7 +65,8 @@ public interface Analysis<
      * analysisCaches} is a map of a block of node to the cached analysis result. If the cache for
      * {@code transferInput} is not in {@code analysisCaches}, this method creates new cache and
      * stores it in {@code analysisCaches}. The cache is a map of nodes to the analysis results of
-     * the nodes.
+     * the nodes. An implementation need not cache the result of every node: it may cache only
+     * some of them and recompute the others from the nearest cached result.
      *
      * @param node the node to analyze
      * @param before the boolean value to indicate which store to return (if it is true, return the
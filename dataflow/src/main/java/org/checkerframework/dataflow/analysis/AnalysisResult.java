@@ -2,6 +2,7 @@ package org.checkerframework.dataflow.analysis;
 
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -29,6 +30,13 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
     /** Abstract values of nodes. */
     protected final IdentityHashMap<Node, V> nodeValues;
 
+    /**
+     * Nodes whose abstract value is not refined, that is, is exactly the value that a client
+     * computes for the node's tree without dataflow information. Used by {@link
+     * #hasRefinedValue(Tree)}.
+     */
+    protected final Set<Node> unrefinedNodes;
+
     /**
      * Map from AST {@link Tree}s to sets of {@link Node}s.
      *
@@ -58,6 +66,7 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
      * Initialize with given mappings.
      *
      * @param nodeValues {@link #nodeValues}
+     * @param unrefinedNodes {@link #unrefinedNodes}
      * @param stores {@link #stores}
      * @param treeLookup {@link #treeLookup}
      * @param unaryAssignNodeLookup {@link #unaryAssignNodeLookup}
@@ -66,12 +75,15 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
      */
     protected AnalysisResult(
             Map<Node, V> nodeValues,
+            Set<Node> unrefinedNodes,
             IdentityHashMap<Block, TransferInput<V, S>> stores,
             IdentityHashMap<Tree, Set<Node>> treeLookup,
             IdentityHashMap<UnaryTree, AssignmentNode> unaryAssignNodeLookup,
             HashMap<Element, V> finalLocalValues,
             Map<TransferInput<V, S>, IdentityHashMap<Node, TransferResult<V, S>>> analysisCaches) {
         this.nodeValues = new IdentityHashMap<>(nodeValues);
+        this.unrefinedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.unrefinedNodes.addAll(unrefinedNodes);
         this.treeLookup = new IdentityHashMap<>(treeLookup);
         this.unaryAssignNodeLookup = new IdentityHashMap<>(unaryAssignNodeLookup);
         // TODO: why are stores and finalLocalValues captured?
@@ -80,6 +92,33 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
         this.analysisCaches = analysisCaches;
     }
 
+    /**
+     * Initialize with given mappings, treating every node value as refined.
+     *
+     * @param nodeValues {@link #nodeValues}
+     * @param stores {@link #stores}
+     * @param treeLookup {@link #treeLookup}
+     * @param unaryAssignNodeLookup {@link #unaryAssignNodeLookup}
+     * @param finalLocalValues {@link #finalLocalValues}
+     * @param analysisCaches {@link #analysisCaches}
+     */
+    protected AnalysisResult(
+            Map<Node, V> nodeValues,
+            IdentityHashMap<Block, TransferInput<V, S>> stores,
+            IdentityHashMap<Tree, Set<Node>> treeLookup,
+            IdentityHashMap<UnaryTree, AssignmentNode> unaryAssignNodeLookup,
+            HashMap<Element, V> finalLocalValues,
+            Map<TransferInput<V, S>, IdentityHashMap<Node, TransferResult<V, S>>> analysisCaches) {
+        this(
+                nodeValues,
+                Collections.emptySet(),
+                stores,
+                treeLookup,
+                unaryAssignNodeLookup,
+                finalLocalValues,
+                analysisCaches);
+    }
+
     /**
      * Initialize with given mappings and empty cache.
      *
@@ -127,6 +166,8 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
      */
     public void combine(AnalysisResult<V, S> other) {
         nodeValues.putAll(other.nodeValues);
+        unrefinedNodes.removeAll(other.nodeValues.keySet());
+        unrefinedNodes.addAll(other.unrefinedNodes);
         mergeTreeLookup(treeLookup, other.treeLookup);
         unaryAssignNodeLookup.putAll(other.unaryAssignNodeLookup);
         stores.putAll(other.stores);
@@ -201,6 +242,28 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
         return merged;
     }
 
+    /**
+     * Returns true if the abstract value for {@link Tree} {@code t} might be refined, that is,
+     * might differ from the value that a client computes for {@code t} without dataflow
+     * information. If this returns false, a client need not call {@link #getValue(Tree)}.
+     *
+     * @param t a tree
+     * @return false if there is no abstract value for {@code t}, or if it is known not to be
+     *     refined
+     */
+    public boolean hasRefinedValue(Tree t) {
+        Set<Node> nodes = treeLookup.get(t);
+        if (nodes == null) {
+            return false;
+        }
+        for (Node aNode : nodes) {
+            if (nodeValues.containsKey(aNode) && !unrefinedNodes.contains(aNode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the {@code Node}s corresponding to a particular {@code Tree}. Multiple {@code Node}s
      * can correspond to a single {@code Tree} because of several reasons:
@@ -401,7 +464,8 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> {
      * analysisCaches} is a map of a block of node to the cached analysis result. If the cache for
      * {@code transferInput} is not in {@code analysisCaches}, this method creates new cache and
      * stores it in {@code analysisCaches}. The cache is a map of nodes to the analysis results of
-     * the nodes.
+     * the nodes. An implementation need not cache the result of every node: it may cache only
+     * some of them and recompute the others from the nearest cached result.
      *
      * @param <V> the abstract value type to be tracked by the analysis
      * @param <S> the store type used in the analysis
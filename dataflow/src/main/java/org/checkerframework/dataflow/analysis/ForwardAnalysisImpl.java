@@ -54,6 +54,14 @@ public class ForwardAnalysisImpl<
      */
     protected final int maxCountBeforeWidening;
 
+    /**
+     * Within a regular block, {@link #runAnalysisFor} caches the transfer result of every node
+     * whose index in the block is a multiple of this number (counting from 1), besides the results
+     * for the nodes it is queried for. A later query replays the transfer function from the
+     * nearest cached result that precedes the queried node.
+     */
+    private static final int STORE_CHECKPOINT_INTERVAL = 8;
+
     /** Then stores before every basic block (assumed to be 'no information' if not present). */
     protected final IdentityHashMap<Block, S> thenStores;
 
@@ -219,6 +227,22 @@ public class ForwardAnalysisImpl<
         }
     }
 
+    /**
+     * Returns the index of {@code node} in {@code nodes}, comparing by identity.
+     *
+     * @param nodes a list of nodes
+     * @param node the node to find
+     * @return the index of {@code node} in {@code nodes}, or -1 if it is not there
+     */
+    private static int indexOf(List<Node> nodes, @FindDistinct Node node) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public @Nullable TransferInput<V, S> getInput(Block b) {
         return getInputBefore(b);
@@ -270,33 +294,47 @@ public class ForwardAnalysisImpl<
                 case REGULAR_BLOCK:
                     {
                         RegularBlock rb = (RegularBlock) block;
-                        // Apply transfer function to contents until we found the node we are
-                        // looking for.
+                        List<Node> nodes = rb.getNodes();
+                        int nodeIndex = indexOf(nodes, node);
+                        if (nodeIndex == -1) {
+                            // If the block of 'node' is 'block', then 'node' must be part of the
+                            // contents of 'block'.
+                            throw new BugInCF("This point should never be reached.");
+                        }
+                        // The last node whose result is needed: the result of the node before
+                        // 'node' is the store before 'node'.
+                        int lastIndex = before ? nodeIndex - 1 : nodeIndex;
+                        // Start from the nearest cached result, if any.
                         TransferInput<V, S> store = transferInput;
-                        TransferResult<V, S> transferResult;
-                        for (Node n : rb.getNodes()) {
-                            setCurrentNode(n);
-                            if (n == node && before) {
-                                return store.getRegularStore();
-                            }
-                            if (cache != null && cache.containsKey(n)) {
-                                transferResult = cache.get(n);
-                            } else {
-                                // Copy the store to avoid changing other blocks' transfer inputs in
-                                // {@link #inputs}
-                                transferResult = callTransferFunction(n, store.copy());
-                                if (cache != null) {
-                                    cache.put(n, transferResult);
+                        int startIndex = 0;
+                        if (cache != null) {
+                            for (int i = lastIndex; i >= 0; i--) {
+                                TransferResult<V, S> cached = cache.get(nodes.get(i));
+                                if (cached != null) {
+                                    store = new TransferInput<>(nodes.get(i), this, cached);
+                                    startIndex = i + 1;
+                                    break;
                                 }
                             }
-                            if (n == node) {
-                                return transferResult.getRegularStore();
+                        }
+                        // Apply transfer function to contents until we found the node we are
+                        // looking for.
+                        for (int i = startIndex; i <= lastIndex; i++) {
+                            Node n = nodes.get(i);
+                            setCurrentNode(n);
+                            // Copy the store to avoid changing other blocks' transfer inputs in
+                            // {@link #inputs}
+                            TransferResult<V, S> transferResult =
+                                    callTransferFunction(n, store.copy());
+                            if (cache != null
+                                    && (i == lastIndex
+                                            || (i + 1) % STORE_CHECKPOINT_INTERVAL == 0)) {
+                                cache.put(n, transferResult);
                             }
                             store = new TransferInput<>(n, this, transferResult);
                         }
-                        // This point should never be reached. If the block of 'node' is
-                        // 'block', then 'node' must be part of the contents of 'block'.
-                        throw new BugInCF("This point should never be reached.");
+                        setCurrentNode(node);
+                        return store.getRegularStore();
                     }
                 case EXCEPTION_BLOCK:
                     {
@@ -0,0 +1,156 @@
+package org.checkerframework.dataflow.cfg;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.TypeMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * Computes a fingerprint of the input to CFG construction for an {@link UnderlyingAST}: the code
+ * itself and the javac signatures of everything it references.
+ *
+ * <p>The fingerprint consists of:
+ *
+ * <ul>
+ *   <li>the pretty-printed source of the code (so formatting and comments do not matter, but any
+ *       change to the code does),
+ *   <li>the javac type of every tree in the code, which captures the results of overload
+ *       resolution, type inference, boxing, and unboxing, and
+ *   <li>for every referenced element, its kind, owner, signature, and (for methods and
+ *       constructors) its thrown types, which determine the exceptional edges of the CFG.
+ * </ul>
+ *
+ * Two pieces of code with the same fingerprint are translated into control flow graphs with the
+ * same structure, provided the CFG builder is configured the same way (for example, with respect
+ * to assertions). The fingerprint is stable across compilations, so it can be used as the key of
+ * a cache of information derived from a method, such as diagnostics.
+ *
+ * <p>Control flow graphs themselves are not cached across compilations: their nodes refer to javac
+ * trees and types of one particular compilation, some of them artificial trees created during CFG
+ * construction, so reattaching a stored graph to new trees would amount to building it again.
+ */
+public class CFGFingerprint {
+
+    /** Do not instantiate. */
+    private CFGFingerprint() {
+        throw new BugInCF("Class CFGFingerprint cannot be instantiated.");
+    }
+
+    /**
+     * Returns the fingerprint of the given code, as a hexadecimal string.
+     *
+     * @param ast the code whose control flow graph would be built
+     * @return the fingerprint of {@code ast}
+     */
+    public static String compute(UnderlyingAST ast) {
+        Tree code;
+        switch (ast.getKind()) {
+            case METHOD:
+                // Include the method's signature, not just its body.
+                code = ((CFGMethod) ast).getMethod();
+                break;
+            case LAMBDA:
+                code = ((CFGLambda) ast).getLambdaTree();
+                break;
+            default:
+                code = ast.getCode();
+                break;
+        }
+        return compute(code);
+    }
+
+    /**
+     * Returns the fingerprint of the given tree, as a hexadecimal string.
+     *
+     * @param code a method, lambda, statement, or expression
+     * @return the fingerprint of {@code code}
+     */
+    public static String compute(Tree code) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BugInCF("SHA-256 is not available", e);
+        }
+        update(digest, code.getKind().toString());
+        update(digest, code.toString());
+        new FingerprintScanner(digest).scan(code, null);
+        return toHex(digest.digest());
+    }
+
+    /** Adds the given string, followed by a separator, to the digest. */
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /** Returns the hexadecimal representation of the given bytes. */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /** Adds the types and referenced elements of all trees in the scanned code to a digest. */
+    private static class FingerprintScanner extends TreeScanner<Void, Void> {
+
+        /** The digest to update. */
+        private final MessageDigest digest;
+
+        /**
+         * Creates a new FingerprintScanner.
+         *
+         * @param digest the digest to update
+         */
+        FingerprintScanner(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public Void scan(@Nullable Tree tree, Void p) {
+            if (tree == null) {
+                return null;
+            }
+            update(digest, tree.getKind().toString());
+            TypeMirror type = TreeUtils.typeOf(tree);
+            if (type != null) {
+                update(digest, type.toString());
+            }
+            if (tree instanceof ExpressionTree || tree instanceof MethodTree) {
+                Element element = TreeUtils.elementFromTree(tree);
+                if (element != null) {
+                    addElement(element);
+                }
+            }
+            return super.scan(tree, p);
+        }
+
+        /** Adds the signature of a referenced element to the digest. */
+        private void addElement(Element element) {
+            update(digest, element.getKind().toString());
+            Element owner = element.getEnclosingElement();
+            update(digest, owner == null ? "" : owner.toString());
+            update(digest, element.toString());
+            update(digest, element.asType().toString());
+            if (element instanceof ExecutableElement) {
+                List<? extends TypeMirror> thrown = ((ExecutableElement) element).getThrownTypes();
+                update(digest, thrown.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package cfgfingerprint;
+
+import org.checkerframework.dataflow.cfg.CFGFingerprint;
+import org.checkerframework.dataflow.cfg.CFGVisualizeLauncher;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+
+/**
+ * Used in cfgFingerprintTest Gradle task to test {@link CFGFingerprint}. Each subdirectory of
+ * dataflow/tests/cfg-fingerprint contains a variant of the method Test.test. Each variant is
+ * compiled separately, and its fingerprint is compared with the fingerprint of the variant in
+ * the Base subdirectory.
+ */
+public class CompareFingerprints extends CFGVisualizeLauncher {
+
+    /**
+     * The main method expects to be run in dataflow/tests/cfg-fingerprint directory.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        CompareFingerprints compare = new CompareFingerprints();
+        String base = compare.fingerprint("Base");
+        boolean ok = compare.check("Base", base, true);
+        ok &= compare.check("Same", base, true);
+        ok &= compare.check("Literal", base, false);
+        ok &= compare.check("Reordered", base, false);
+        ok &= compare.check("Operator", base, false);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the method Test.test in the given directory.
+     *
+     * @param directory the directory that contains Test.java
+     * @return the fingerprint of the method's control flow graph
+     */
+    private String fingerprint(String directory) {
+        ControlFlowGraph cfg = generateMethodCFG(directory + "/Test.java", "Test", "test");
+        return CFGFingerprint.compute(cfg.getUnderlyingAST());
+    }
+
+    /**
+     * Compares the fingerprint of the variant in the given directory with the base fingerprint,
+     * and prints an error if the comparison is not as expected.
+     *
+     * @param directory the directory that contains Test.java
+     * @param base the fingerprint of the base variant
+     * @param expectSame true if the fingerprints should be equal
+     * @return true if the comparison is as expected
+     */
+    private boolean check(String directory, String base, boolean expectSame) {
+        boolean same = fingerprint(directory).equals(base);
+        if (same != expectSame) {
+            printError(
+                    directory
+                            + "/Test.java: expected the fingerprint to "
+                            + (expectSame ? "equal" : "differ from")
+                            + " that of Base/Test.java");
+        }
+        return same == expectSame;
+    }
+}
@@ -0,0 +1,123 @@
+package storecheckpoint;
+
+import java.util.IdentityHashMap;
+import org.checkerframework.dataflow.analysis.AnalysisResult;
+import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.cfg.CFGVisualizeLauncher;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.constantpropagation.Constant;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationStore;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationTransfer;
+
+/**
+ * Used in storeCheckpointTest Gradle task to test that the stores that {@link
+ * ForwardAnalysisImpl#runAnalysisFor} replays from its cached results within a long regular block
+ * are the same as the stores computed by applying the transfer function from the start of the
+ * block. The stores before and after nodes are queried at the start of the block, between the
+ * cached results, and out of order.
+ */
+public class StoreCheckpoints extends CFGVisualizeLauncher {
+
+    /** The analysis of the method Test.test. */
+    private final ForwardAnalysisImpl<
+                    Constant, ConstantPropagationStore, ConstantPropagationTransfer>
+            analysis = new ForwardAnalysisImpl<>(new ConstantPropagationTransfer());
+
+    /** The result of {@link #analysis}, whose queries use the cached results. */
+    private AnalysisResult<Constant, ConstantPropagationStore> result;
+
+    /** The longest block of the method Test.test. */
+    private Block block;
+
+    /** Whether all queries so far returned the expected store. */
+    private boolean ok = true;
+
+    /**
+     * The main method expects to be run in dataflow/tests/store-checkpoint directory.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        StoreCheckpoints test = new StoreCheckpoints();
+        test.analyze();
+        int size = test.block.getNodes().size();
+        // The block must be long enough to have several cached results.
+        if (size <= 24) {
+            test.printError("The block of Test.test has only " + size + " nodes");
+            System.exit(1);
+        }
+        // The start of the block.
+        test.check(0, true);
+        test.check(0, false);
+        // Between cached results, before any cached result preceding them.
+        test.check(11, true);
+        test.check(13, false);
+        test.check(12, true);
+        // Out of order: backward, then forward across several cached results.
+        test.check(size - 1, false);
+        test.check(3, true);
+        test.check(size - 2, true);
+        test.check(17, false);
+        test.check(5, false);
+        // Every node, in an order that jumps around the block.
+        for (int i = 0; i < size; i++) {
+            int index = (i * 7) % size;
+            test.check(index, true);
+            test.check(index, false);
+        }
+        if (!test.ok) {
+            System.exit(1);
+        }
+    }
+
+    /** Analyzes the method Test.test and finds its longest block. */
+    private void analyze() {
+        ControlFlowGraph cfg = generateMethodCFG("Test.java", "Test", "test");
+        analysis.performAnalysis(cfg);
+        result = analysis.getResult();
+        for (Block b : cfg.getAllBlocks()) {
+            if (block == null || b.getNodes().size() > block.getNodes().size()) {
+                block = b;
+            }
+        }
+    }
+
+    /**
+     * Compares the store before or after the node at the given index in {@link #block}, as
+     * returned by {@link #result}, with the store computed by applying the transfer function from
+     * the start of the block, and prints an error if they differ.
+     *
+     * @param index the index of a node in {@link #block}
+     * @param before true to compare the stores before the node, false for the stores after it
+     */
+    private void check(int index, boolean before) {
+        Node node = block.getNodes().get(index);
+        ConstantPropagationStore actual =
+                before ? result.getStoreBefore(node) : result.getStoreAfter(node);
+        ConstantPropagationStore expected = getStoreWithoutCache(node, before);
+        if (!expected.equals(actual)) {
+            printError(
+                    String.format(
+                            "store %s node %d (%s): expected %s, found %s",
+                            before ? "before" : "after", index, node, expected, actual));
+            ok = false;
+        }
+    }
+
+    /**
+     * Returns the store before or after the given node, computed by applying the transfer function
+     * to every node from the start of its block.
+     *
+     * @param node a node of {@link #block}
+     * @param before true for the store before the node, false for the store after it
+     * @return the store before or after {@code node}
+     */
+    private ConstantPropagationStore getStoreWithoutCache(Node node, boolean before) {
+        TransferInput<Constant, ConstantPropagationStore> input = analysis.getInput(block);
+        return AnalysisResult.runAnalysisFor(
+                node, before, input, new IdentityHashMap<>(analysis.getNodeValues()), null);
+    }
+}
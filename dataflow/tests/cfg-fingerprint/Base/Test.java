@@ -0,0 +1,7 @@
+public class Test {
+    int test(int x) {
+        int y = x + 1;
+        int z = x * 2;
+        return y + z;
+    }
+}
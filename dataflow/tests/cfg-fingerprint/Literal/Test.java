@@ -0,0 +1,8 @@
+// Base/Test.java with a different literal.
+public class Test {
+    int test(int x) {
+        int y = x + 2;
+        int z = x * 2;
+        return y + z;
+    }
+}
@@ -0,0 +1,8 @@
+// Base/Test.java with a different operator.
+public class Test {
+    int test(int x) {
+        int y = x - 1;
+        int z = x * 2;
+        return y + z;
+    }
+}
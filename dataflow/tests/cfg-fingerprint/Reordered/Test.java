@@ -0,0 +1,8 @@
+// Base/Test.java with two statements swapped.
+public class Test {
+    int test(int x) {
+        int z = x * 2;
+        int y = x + 1;
+        return y + z;
+    }
+}
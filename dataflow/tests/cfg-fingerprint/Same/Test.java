@@ -0,0 +1,9 @@
+// The same code as Base/Test.java, formatted differently and with comments.
+public class Test {
+
+    int test(int x) {
+        // Comments and formatting do not matter.
+        int y = x+1;  int z = x * 2;
+        return y + z;
+    }
+}
@@ -0,0 +1,20 @@
+public class Test {
+    public void test() {
+        int a = 1;
+        int b = a + 1;
+        int c = b + a;
+        int d = c + b;
+        int e = d + c;
+        int f = e + d;
+        int g = f + e;
+        int h = g + f;
+        a = h + g;
+        b = a + h;
+        c = b + a;
+        d = c + b;
+        e = d + c;
+        f = e + d;
+        g = f + e;
+        h = g + f;
+    }
+}
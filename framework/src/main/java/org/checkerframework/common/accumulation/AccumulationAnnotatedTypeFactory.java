@@ -10,8 +10,11 @@ import com.sun.source.tree.MethodInvocationTree;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
@@ -32,6 +35,7 @@ import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGra
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.UserError;
 
@@ -65,6 +69,32 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
      */
     private final @MonotonicNonNull Class<? extends Annotation> predicate;
 
+    /** The size of the caches of accumulator annotations. */
+    private static final int ACCUMULATOR_CACHE_SIZE = 500;
+
+    /**
+     * Maps each value that an accumulator annotation has accumulated to a small integer. The
+     * accumulator annotations are represented by bit sets of these integers.
+     */
+    private final Map<String, Integer> accumulatedValueIds = new HashMap<>();
+
+    /** The values in {@link #accumulatedValueIds}, indexed by their integer. */
+    private final List<String> accumulatedValuesById = new ArrayList<>();
+
+    /**
+     * Maps an accumulator annotation to the set of integers of the values it has accumulated. The
+     * bit sets must not be side-effected.
+     */
+    private final Map<AnnotationMirror, BitSet> accumulatedBitsCache =
+            CollectionUtils.createLRUCache(ACCUMULATOR_CACHE_SIZE);
+
+    /**
+     * Maps a set of integers of accumulated values to the canonical accumulator annotation for it.
+     * The bit sets must not be side-effected.
+     */
+    private final Map<BitSet, AnnotationMirror> accumulatorAnnotationCache =
+            CollectionUtils.createLRUCache(ACCUMULATOR_CACHE_SIZE);
+
     /**
      * Create an annotated type factory for an accumulation checker.
      *
@@ -175,7 +205,7 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
     }
 
     /**
-     * Creates a new instance of the accumulator annotation that contains the elements of {@code
+     * Returns an instance of the accumulator annotation that contains the elements of {@code
      * values}.
      *
      * @param values the arguments to the annotation. The values can contain duplicates and can be
@@ -184,22 +214,101 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
      *     arguments; this is top if {@code values} is empty
      */
     public AnnotationMirror createAccumulatorAnnotation(List<String> values) {
-        AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
-        builder.setValue("value", ValueCheckerUtils.removeDuplicates(values));
-        return builder.build();
+        BitSet bits = new BitSet();
+        for (String value : values) {
+            bits.set(getAccumulatedValueId(value));
+        }
+        return createAccumulatorAnnotation(bits);
     }
 
     /**
-     * Creates a new instance of the accumulator annotation that contains exactly one value.
+     * Returns an instance of the accumulator annotation that contains exactly one value.
      *
      * @param value the argument to the annotation
      * @return an annotation mirror representing the accumulator annotation with {@code value} as
      *     its argument
      */
     public AnnotationMirror createAccumulatorAnnotation(String value) {
-        AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
-        builder.setValue("value", Collections.singletonList(value));
-        return builder.build();
+        BitSet bits = new BitSet();
+        bits.set(getAccumulatedValueId(value));
+        return createAccumulatorAnnotation(bits);
+    }
+
+    /**
+     * Returns the canonical instance of the accumulator annotation that contains the values whose
+     * integers are in {@code bits}. The values appear in the order in which this factory first
+     * encountered them.
+     *
+     * @param bits the integers of the arguments to the annotation; not side-effected, and must
+     *     not be side-effected by the caller afterward
+     * @return an annotation mirror representing the accumulator annotation with the given
+     *     arguments
+     */
+    private AnnotationMirror createAccumulatorAnnotation(BitSet bits) {
+        AnnotationMirror result = accumulatorAnnotationCache.get(bits);
+        if (result == null) {
+            List<String> values = new ArrayList<>(bits.cardinality());
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                values.add(accumulatedValuesById.get(i));
+            }
+            AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
+            builder.setValue("value", values);
+            result = builder.build();
+            accumulatorAnnotationCache.put(bits, result);
+            accumulatedBitsCache.put(result, bits);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the integer that represents the given accumulated value, assigning a new one if
+     * necessary.
+     *
+     * @param value a value that an accumulator annotation can accumulate
+     * @return the integer that represents {@code value}
+     */
+    private int getAccumulatedValueId(String value) {
+        Integer id = accumulatedValueIds.get(value);
+        if (id == null) {
+            id = accumulatedValuesById.size();
+            accumulatedValueIds.put(value, id);
+            accumulatedValuesById.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the integers of all the values that anno has accumulated.
+     *
+     * @param anno an accumulator annotation; must not be bottom
+     * @return the integers of the values the annotation has accumulated; must not be side-effected
+     */
+    private BitSet getAccumulatedBits(AnnotationMirror anno) {
+        BitSet bits = accumulatedBitsCache.get(anno);
+        if (bits == null) {
+            bits = new BitSet();
+            for (String value : getAccumulatedValues(anno)) {
+                bits.set(getAccumulatedValueId(value));
+            }
+            accumulatedBitsCache.put(anno, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns true if every integer in {@code subset} is also in {@code superset}.
+     *
+     * @param subset a set of integers
+     * @param superset another set of integers
+     * @return true if {@code subset} is a subset of {@code superset}
+     */
+    private static boolean isSubset(BitSet subset, BitSet superset) {
+        for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+            if (!superset.get(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -382,17 +491,18 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
                 }
             }
 
-            List<String> a1Val = getAccumulatedValues(a1);
-            List<String> a2Val = getAccumulatedValues(a2);
+            BitSet a1Val = getAccumulatedBits(a1);
+            BitSet a2Val = getAccumulatedBits(a2);
             // Avoid creating new annotation objects in the common case.
-            if (a1Val.containsAll(a2Val)) {
+            if (isSubset(a2Val, a1Val)) {
                 return a1;
             }
-            if (a2Val.containsAll(a1Val)) {
+            if (isSubset(a1Val, a2Val)) {
                 return a2;
             }
-            a1Val.addAll(a2Val);
-            return createAccumulatorAnnotation(a1Val);
+            BitSet union = (BitSet) a1Val.clone();
+            union.or(a2Val);
+            return createAccumulatorAnnotation(union);
         }
 
         /**
@@ -422,17 +532,18 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
                 }
             }
 
-            List<String> a1Val = getAccumulatedValues(a1);
-            List<String> a2Val = getAccumulatedValues(a2);
+            BitSet a1Val = getAccumulatedBits(a1);
+            BitSet a2Val = getAccumulatedBits(a2);
             // Avoid creating new annotation objects in the common case.
-            if (a1Val.containsAll(a2Val)) {
+            if (isSubset(a2Val, a1Val)) {
                 return a2;
             }
-            if (a2Val.containsAll(a1Val)) {
+            if (isSubset(a1Val, a2Val)) {
                 return a1;
             }
-            a1Val.retainAll(a2Val);
-            return createAccumulatorAnnotation(a1Val);
+            BitSet intersection = (BitSet) a1Val.clone();
+            intersection.and(a2Val);
+            return createAccumulatorAnnotation(intersection);
         }
 
         /** isSubtype in this type system is subset. */
@@ -451,9 +562,9 @@ public abstract class AccumulationAnnotatedTypeFactory extends BaseAnnotatedType
                 return evaluatePredicate(subAnno, convertToPredicate(superAnno));
             }
 
-            List<String> subVal = getAccumulatedValues(subAnno);
-            List<String> superVal = getAccumulatedValues(superAnno);
-            return subVal.containsAll(superVal);
+            BitSet subVal = getAccumulatedBits(subAnno);
+            BitSet superVal = getAccumulatedBits(superAnno);
+            return isSubset(superVal, subVal);
         }
     }
 
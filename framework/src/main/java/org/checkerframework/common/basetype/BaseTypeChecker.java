@@ -465,6 +465,17 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         return subcheckers;
     }
 
+    /**
+     * Returns the subcheckers that are direct dependencies of this checker.
+     *
+     * @return the immediate subcheckers of this checker
+     */
+    public List<BaseTypeChecker> getImmediateSubcheckers() {
+        // Instantiates the subcheckers, if that has not been done yet.
+        getSubcheckers();
+        return immediateSubcheckers;
+    }
+
     /** Get the shared TreePathCacher instance. */
     public TreePathCacher getTreePathCacher() {
         if (treePathCacher == null) {
@@ -516,6 +527,28 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
             // Update errsOnLastExit to reflect the errors issued.
             this.errsOnLastExit = log.nerrors;
         }
+
+        if (parentChecker == null) {
+            // Every checker is done with this class; a subchecker's results must be kept until
+            // then, because its parent queries them.
+            for (BaseTypeChecker subchecker : getSubcheckers()) {
+                releaseFlowResults(subchecker);
+            }
+            releaseFlowResults(this);
+        }
+    }
+
+    /**
+     * Discards the dataflow results that the type factory of {@code checker} holds for the
+     * current compilation unit.
+     *
+     * @param checker a checker whose type factory might hold dataflow results
+     */
+    private static void releaseFlowResults(BaseTypeChecker checker) {
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> factory = checker.getTypeFactory();
+        if (factory != null) {
+            factory.releaseFlowResults();
+        }
     }
 
     /**
@@ -725,6 +758,24 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         super.typeProcessingOver();
     }
 
+    /** Also prints how each tier of the assignment checks of this and the subcheckers fired. */
+    @Override
+    protected void printStats() {
+        super.printStats();
+        printAssignmentCheckStatistics();
+    }
+
+    /** Prints the assignment check statistics of this checker and of all its subcheckers. */
+    private void printAssignmentCheckStatistics() {
+        for (BaseTypeChecker checker : getSubcheckers()) {
+            checker.printAssignmentCheckStatistics();
+        }
+        BaseTypeVisitor<?> visitor = getVisitor();
+        if (visitor != null) {
+            System.out.println(visitor.getAssignmentCheckStatistics());
+        }
+    }
+
     @Override
     public Set<String> getSupportedOptions() {
         if (supportedOptions == null) {
@@ -85,6 +85,7 @@ import org.checkerframework.framework.flow.CFAbstractValue;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.checkerframework.framework.qual.Unused;
 import org.checkerframework.framework.source.DiagMessage;
+import org.checkerframework.framework.source.MethodSummaryCache;
 import org.checkerframework.framework.source.SourceVisitor;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeFactory.ParameterizedExecutableType;
@@ -199,6 +200,21 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     /** The {@code value} element/field of the @java.lang.annotation.Target annotation. */
     protected final ExecutableElement targetValueElement;
 
+    /**
+     * The number of assignment checks between primitive types that {@link #isTriviallyAssignable}
+     * decided.
+     */
+    private long primitiveAssignmentCheckCount = 0;
+
+    /**
+     * The number of assignment checks between non-generic declared types that {@link
+     * #isTriviallyAssignable} decided.
+     */
+    private long simpleDeclaredAssignmentCheckCount = 0;
+
+    /** The number of assignment checks that required {@link TypeHierarchy#isSubtype}. */
+    private long fullAssignmentCheckCount = 0;
+
     /**
      * @param checker the type-checker associated with this visitor (for callbacks to {@link
      *     TypeHierarchy#isSubtype})
@@ -656,9 +672,41 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
      * </ul>
      *
      * Also, it issues a "missing.this" error for static method annotated receivers.
+     *
+     * <p>If the method summary cache is enabled and contains the diagnostics of a previous
+     * compilation for this method, both for this checker and for its subcheckers, they are issued
+     * again instead of checking the method.
      */
     @Override
     public Void visitMethod(MethodTree node, Void p) {
+        String summaryKey = atypeFactory.getMethodSummaryKey(node);
+        if (summaryKey == null) {
+            return visitMethodWithoutSummary(node, p);
+        }
+        MethodSummaryCache summaryCache = checker.getMethodSummaryCache();
+        if (atypeFactory.canReplayMethodSummary(node)) {
+            summaryCache.replay(summaryKey, node);
+            return null;
+        }
+        summaryCache.startRecording(summaryKey, node);
+        try {
+            visitMethodWithoutSummary(node, p);
+        } finally {
+            summaryCache.stopRecording();
+        }
+        // Not in the finally block: do not store the diagnostics of an incomplete check.
+        summaryCache.finish(summaryKey);
+        return null;
+    }
+
+    /**
+     * Checks a method declaration, without consulting the method summary cache.
+     *
+     * @param node the method declaration
+     * @param p the unused parameter of the visitor
+     * @return null
+     */
+    private Void visitMethodWithoutSummary(MethodTree node, Void p) {
         // We copy the result from getAnnotatedType to ensure that
         // circular types (e.g. K extends Comparable<K>) are represented
         // by circular AnnotatedTypeMirrors, which avoids problems with
@@ -2527,7 +2575,13 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
 
         commonAssignmentCheckStartDiagnostic(varType, valueType, valueTree);
 
-        boolean success = atypeFactory.getTypeHierarchy().isSubtype(valueType, varType);
+        boolean success;
+        if (isTriviallyAssignable(varType, valueType)) {
+            success = true;
+        } else {
+            fullAssignmentCheckCount++;
+            success = atypeFactory.getTypeHierarchy().isSubtype(valueType, varType);
+        }
 
         // TODO: integrate with subtype test.
         if (success) {
@@ -2559,6 +2613,70 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         }
     }
 
+    /**
+     * Returns true if {@code valueType} is obviously a subtype of {@code varType}, so that {@link
+     * #commonAssignmentCheck(AnnotatedTypeMirror, AnnotatedTypeMirror, Tree, String, Object...)}
+     * does not need to call {@link TypeHierarchy#isSubtype}. That is the case if both types have
+     * the same primary annotations, one in each hierarchy, and either both are primitive types or
+     * both are declared types without type arguments whose underlying types are subtypes. The
+     * subtype test of such types only compares their primary annotations, and every qualifier is a
+     * subtype of itself.
+     *
+     * <p>Most assignments, arguments, and returns in real code are of this form. Checkers whose
+     * type hierarchy relates such types in some other way should override this method to return
+     * false.
+     *
+     * @param varType the annotated type of the variable
+     * @param valueType the annotated type of the value
+     * @return true if {@code valueType} is a subtype of {@code varType}; false if the full subtype
+     *     test is needed
+     */
+    protected boolean isTriviallyAssignable(
+            AnnotatedTypeMirror varType, AnnotatedTypeMirror valueType) {
+        TypeKind varKind = varType.getKind();
+        if (varKind != valueType.getKind()
+                || (varKind != TypeKind.DECLARED && !varKind.isPrimitive())) {
+            return false;
+        }
+        Set<AnnotationMirror> varAnnos = varType.getAnnotations();
+        if (varAnnos.size() != atypeFactory.getQualifierHierarchy().getWidth()
+                || !AnnotationUtils.areSame(varAnnos, valueType.getAnnotations())) {
+            return false;
+        }
+        if (varKind.isPrimitive()) {
+            primitiveAssignmentCheckCount++;
+            return true;
+        }
+        AnnotatedDeclaredType varDeclared = (AnnotatedDeclaredType) varType;
+        AnnotatedDeclaredType valueDeclared = (AnnotatedDeclaredType) valueType;
+        if (varDeclared.wasRaw()
+                || valueDeclared.wasRaw()
+                || !varDeclared.getUnderlyingType().getTypeArguments().isEmpty()
+                || !valueDeclared.getUnderlyingType().getTypeArguments().isEmpty()
+                || !types.isSubtype(
+                        valueDeclared.getUnderlyingType(), varDeclared.getUnderlyingType())) {
+            return false;
+        }
+        simpleDeclaredAssignmentCheckCount++;
+        return true;
+    }
+
+    /**
+     * Returns how often each tier of {@link #commonAssignmentCheck(AnnotatedTypeMirror,
+     * AnnotatedTypeMirror, Tree, String, Object...)} has decided an assignment check, for the
+     * {@code -AresourceStats} command-line option.
+     *
+     * @return a description of the number of checks that each tier decided
+     */
+    public String getAssignmentCheckStatistics() {
+        return String.format(
+                "%s assignment checks: %d primitive, %d non-generic declared, %d full",
+                checker.getClass().getSimpleName(),
+                primitiveAssignmentCheckCount,
+                simpleDeclaredAssignmentCheckCount,
+                fullAssignmentCheckCount);
+    }
+
     /**
      * Class that creates string representations of {@link AnnotatedTypeMirror}s which are only
      * verbose if required to differentiate the two types.
@@ -12,6 +12,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -106,7 +107,17 @@ public abstract class CFAbstractAnalysis<
     public void performAnalysis(ControlFlowGraph cfg, List<Pair<VariableElement, V>> fieldValues) {
         this.fieldValues.clear();
         this.fieldValues.addAll(fieldValues);
-        super.performAnalysis(cfg);
+        transferFunction.clearValuesFromFactory();
+        try {
+            super.performAnalysis(cfg);
+        } finally {
+            transferFunction.clearValuesFromFactory();
+        }
+    }
+
+    @Override
+    protected boolean isUnrefinedValue(Node node, V value) {
+        return transferFunction.isValueFromFactory(node, value);
     }
 
     public List<Pair<VariableElement, V>> getFieldValues() {
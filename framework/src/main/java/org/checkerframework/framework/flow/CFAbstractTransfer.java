@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -108,6 +109,13 @@ public abstract class CFAbstractTransfer<
     /** Indicates that the whole-program inference is on. */
     private final boolean infer;
 
+    /**
+     * Maps a node to the value most recently returned by {@link #getValueFromFactory} for the
+     * node's tree, if that value was computed without an assignment context. Used by {@link
+     * #isValueFromFactory}.
+     */
+    private final IdentityHashMap<Node, V> valuesFromFactory = new IdentityHashMap<>();
+
     protected CFAbstractTransfer(CFAbstractAnalysis<V, S, T> analysis) {
         this.analysis = analysis;
         this.sequentialSemantics = !analysis.checker.hasOption("concurrentSemantics");
@@ -211,7 +219,29 @@ public abstract class CFAbstractTransfer<
         AnnotatedTypeMirror at = factory.getAnnotatedType(tree);
         analysis.setCurrentTree(preTree);
         factory.getVisitorState().setAssignmentContext(preCtxt);
-        return analysis.createAbstractValue(at);
+        V value = analysis.createAbstractValue(at);
+        if (node != null && node.getTree() == tree && node.getAssignmentContext() == null) {
+            valuesFromFactory.put(node, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if {@code value} is the very value that {@link #getValueFromFactory} last
+     * returned for {@code node}, computed without an assignment context. Such a value is exactly
+     * what the factory computes for the node's tree without dataflow information.
+     *
+     * @param node a node
+     * @param value a value computed by this transfer function for {@code node}
+     * @return true if {@code value} was computed by the factory and not refined afterward
+     */
+    public boolean isValueFromFactory(Node node, V value) {
+        return value != null && valuesFromFactory.get(node) == value;
+    }
+
+    /** Forgets the values recorded by {@link #getValueFromFactory}. */
+    public void clearValuesFromFactory() {
+        valuesFromFactory.clear();
     }
 
     /**
@@ -0,0 +1,596 @@
+package org.checkerframework.framework.source;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.interning.qual.FindDistinct;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
+
+/**
+ * Stores, across compilations, the diagnostics that a checker issued for each method, so that a
+ * method that has not changed need not be checked again. It is enabled by the {@code
+ * -AmethodSummaryCache=FILE} command-line option, which names the file in which the summaries are
+ * kept between runs of the compiler.
+ *
+ * <p>Each summary is stored under a key that is computed from the checker, its command-line
+ * options, the Checker Framework and Java versions, and a fingerprint of the method that the
+ * client supplies. The fingerprint must cover everything that checking the method depends on: see
+ * {@link
+ * org.checkerframework.framework.type.GenericAnnotatedTypeFactory#getMethodSummaryKey(MethodTree)}.
+ *
+ * <p>While a method is checked, its client brackets the work with {@link #startRecording} and
+ * {@link #stopRecording}, and calls {@link #finish} once all diagnostics for the method have been
+ * issued. If the key is already in the cache, the client instead skips checking the method and
+ * calls {@link #replay}, which issues the stored diagnostics again. Diagnostics are located by
+ * their position in the method's tree, so they are replayed at the right place even if the method
+ * moved within its file.
+ *
+ * <p>Recordings can be nested, for example when the flow analysis of one method is performed while
+ * another method is checked. Each diagnostic is recorded for the innermost method being recorded
+ * that contains the diagnostic's tree. A method is not cached if a diagnostic issued while it is
+ * the innermost method being recorded cannot be located within any method being recorded, for
+ * example because it was reported on an {@link javax.lang.model.element.Element}.
+ */
+public final class MethodSummaryCache {
+
+    /** The maximum number of method summaries kept in a cache file. */
+    private static final int MAX_SUMMARIES = 100_000;
+
+    /** An upper bound on the length of a string or tree path in a cache file. */
+    private static final int MAX_STRING_LENGTH = 1 << 24;
+
+    /** Identifies the format of cache files. */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The summaries of all cache files used in this JVM, indexed by file name. Checkers that use
+     * the same file, such as a checker and its subcheckers, share its summaries.
+     */
+    private static final Map<String, SummaryFile> summaryFiles = new HashMap<>();
+
+    /** The checker whose diagnostics are cached. */
+    private final SourceChecker checker;
+
+    /** The summaries, shared with other checkers that use the same file. */
+    private final SummaryFile summaryFile;
+
+    /** The prefix of every key, which identifies the checker and its configuration. */
+    private final String keyPrefix;
+
+    /** The diagnostics recorded for methods whose checking has not yet finished, by key. */
+    private final Map<String, Recording> pending = new HashMap<>();
+
+    /** The recordings and suppressions in progress, innermost first. */
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * Creates a new MethodSummaryCache.
+     *
+     * @param checker the checker whose diagnostics are cached
+     * @param summaryFile the summaries
+     * @param keyPrefix the prefix of every key
+     */
+    private MethodSummaryCache(SourceChecker checker, SummaryFile summaryFile, String keyPrefix) {
+        this.checker = checker;
+        this.summaryFile = summaryFile;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * Returns the method summary cache for the given checker, or null if the {@code
+     * -AmethodSummaryCache} command-line option was not given or another option is incompatible
+     * with it.
+     *
+     * @param checker a checker
+     * @return the method summary cache for {@code checker}, or null
+     */
+    static @Nullable MethodSummaryCache create(SourceChecker checker) {
+        Map<String, String> options = checker.getProcessingEnvironment().getOptions();
+        String fileName = options.get("methodSummaryCache");
+        if (fileName == null) {
+            return null;
+        }
+        // Whole-program inference and unneeded-suppression warnings need to visit every method,
+        // and detailed messages contain positions, which change when a method moves.
+        if (options.containsKey("infer")
+                || options.containsKey("warnUnneededSuppressions")
+                || options.containsKey("detailedmsgtext")) {
+            return null;
+        }
+
+        String version;
+        try {
+            version = checker.getCheckerVersion();
+        } catch (BugInCF e) {
+            version = "unknown";
+        }
+        Map<String, String> sortedOptions = new TreeMap<>(options);
+        sortedOptions.remove("methodSummaryCache");
+        String keyPrefix =
+                checker.getClass().getName()
+                        + ":"
+                        + digest(
+                                version
+                                        + "\0"
+                                        + System.getProperty("java.version")
+                                        + "\0"
+                                        + sortedOptions)
+                        + ":";
+
+        SummaryFile summaryFile;
+        synchronized (summaryFiles) {
+            summaryFile = summaryFiles.get(fileName);
+            if (summaryFile == null) {
+                summaryFile = new SummaryFile(Paths.get(fileName));
+                summaryFiles.put(fileName, summaryFile);
+            }
+        }
+        return new MethodSummaryCache(checker, summaryFile, keyPrefix);
+    }
+
+    /**
+     * Returns the key under which the summary of a method with the given fingerprint is stored.
+     *
+     * @param fingerprint everything that checking the method depends on
+     * @return the key for the method
+     */
+    public String makeKey(String fingerprint) {
+        return keyPrefix + digest(fingerprint);
+    }
+
+    /**
+     * Returns true if the cache contains a summary for the given key.
+     *
+     * @param key a key computed by {@link #makeKey}
+     * @return true if the cache contains a summary for {@code key}
+     */
+    public boolean contains(String key) {
+        return summaryFile.summaries.containsKey(key);
+    }
+
+    /**
+     * Issues the diagnostics stored for the given key again.
+     *
+     * @param key a key that is in the cache
+     * @param method the method whose diagnostics to issue
+     */
+    public void replay(String key, MethodTree method) {
+        List<StoredDiagnostic> diagnostics = summaryFile.summaries.get(key);
+        if (diagnostics == null) {
+            throw new BugInCF("No method summary for " + key);
+        }
+        for (StoredDiagnostic d : diagnostics) {
+            Tree tree = method;
+            for (int index : d.path) {
+                List<Tree> children = children(tree);
+                if (index >= children.size()) {
+                    // Cannot happen if the fingerprint covers the method; fall back to the method.
+                    tree = method;
+                    break;
+                }
+                tree = children.get(index);
+            }
+            checker.printOrStoreMessage(d.kind, d.message, tree, checker.currentRoot);
+        }
+    }
+
+    /**
+     * Starts recording the diagnostics issued for the given method. If the method was recorded
+     * before without a call to {@link #finish}, diagnostics are added to the earlier recording.
+     *
+     * @param key the key of the method
+     * @param method the method
+     */
+    public void startRecording(String key, MethodTree method) {
+        Recording recording = pending.get(key);
+        if (recording == null) {
+            recording = new Recording();
+            pending.put(key, recording);
+        }
+        frames.push(new Frame(method, recording));
+    }
+
+    /** Stops the recording started by the matching call to {@link #startRecording}. */
+    public void stopRecording() {
+        frames.pop();
+    }
+
+    /**
+     * Starts suppressing the diagnostics issued for the given method. A client calls it while it
+     * does work for a method whose diagnostics are replayed, such as the flow analysis that a
+     * parent checker needs, so that the diagnostics are not issued twice.
+     *
+     * @param method the method whose diagnostics are replayed
+     */
+    public void startSuppressing(MethodTree method) {
+        frames.push(new Frame(method, null));
+    }
+
+    /** Stops the suppression started by the matching call to {@link #startSuppressing}. */
+    public void stopSuppressing() {
+        frames.pop();
+    }
+
+    /**
+     * Stores the diagnostics recorded for the given key in the cache. Called once all diagnostics
+     * for the method have been issued.
+     *
+     * @param key the key of the method
+     */
+    public void finish(String key) {
+        Recording recording = pending.remove(key);
+        if (recording != null && recording.cacheable) {
+            summaryFile.put(key, recording.diagnostics);
+        }
+    }
+
+    /**
+     * Records a diagnostic, if a recording is in progress. The diagnostic belongs to the innermost
+     * method with a recording or suppression in progress that contains its tree, or to the
+     * innermost such method overall if none contains it.
+     *
+     * @param kind the kind of the diagnostic
+     * @param message the message text
+     * @param source the source position information
+     * @return false if the diagnostic is suppressed and must not be issued
+     */
+    boolean record(Diagnostic.Kind kind, String message, Object source) {
+        Frame frame = frames.peek();
+        if (frame == null) {
+            return true;
+        }
+        int[] path = null;
+        if (source instanceof Tree) {
+            TreePath treePath = TreePath.getPath(checker.currentRoot, (Tree) source);
+            for (TreePath p = treePath; p != null; p = p.getParentPath()) {
+                Frame enclosing = frameFor(p.getLeaf());
+                if (enclosing != null) {
+                    frame = enclosing;
+                    path = pathFromMethod(treePath, enclosing.method);
+                    break;
+                }
+            }
+        }
+        Recording recording = frame.recording;
+        if (recording == null) {
+            return false;
+        }
+        if (!recording.cacheable) {
+            return true;
+        }
+        if (path == null) {
+            recording.cacheable = false;
+            recording.diagnostics.clear();
+        } else {
+            recording.diagnostics.add(new StoredDiagnostic(kind, message, path));
+        }
+        return true;
+    }
+
+    /** Writes the summaries to the cache file, if they changed. */
+    void save() {
+        try {
+            summaryFile.save();
+        } catch (IOException e) {
+            checker.message(
+                    Diagnostic.Kind.WARNING,
+                    "Could not write method summary cache %s: %s",
+                    summaryFile.path,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the innermost recording or suppression in progress for the given tree.
+     *
+     * @param tree a tree
+     * @return the innermost frame whose method is {@code tree}, or null if there is none
+     */
+    private @Nullable Frame frameFor(@FindDistinct Tree tree) {
+        for (Frame frame : frames) {
+            if (frame.method == tree) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the child indices that lead from {@code method} to the leaf of {@code path}, or null
+     * if the leaf is not within {@code method}.
+     */
+    private static int @Nullable [] pathFromMethod(TreePath path, @FindDistinct MethodTree method) {
+        Deque<Tree> trees = new ArrayDeque<>();
+        while (path != null && path.getLeaf() != method) {
+            trees.push(path.getLeaf());
+            path = path.getParentPath();
+        }
+        if (path == null) {
+            return null;
+        }
+        int[] result = new int[trees.size()];
+        Tree parent = method;
+        for (int i = 0; i < result.length; i++) {
+            Tree child = trees.pop();
+            result[i] = indexOf(children(parent), child);
+            if (result[i] == -1) {
+                return null;
+            }
+            parent = child;
+        }
+        return result;
+    }
+
+    /** Returns the index of {@code tree} in {@code trees}, using reference equality. */
+    private static int indexOf(List<Tree> trees, @FindDistinct Tree tree) {
+        for (int i = 0; i < trees.size(); i++) {
+            if (trees.get(i) == tree) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the non-null direct children of {@code tree}, in the order a scanner visits them. */
+    private static List<Tree> children(Tree tree) {
+        List<Tree> children = new ArrayList<>();
+        tree.accept(
+                new TreeScanner<Void, Void>() {
+                    @Override
+                    public Void scan(Tree child, Void p) {
+                        if (child != null) {
+                            children.add(child);
+                        }
+                        return null;
+                    }
+                },
+                null);
+        return children;
+    }
+
+    /** Returns the SHA-256 digest of the given string, as a hexadecimal string. */
+    private static String digest(String s) {
+        byte[] bytes;
+        try {
+            bytes =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new BugInCF("SHA-256 is not available", e);
+        }
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /** The diagnostics recorded for one method. */
+    private static class Recording {
+        /** The diagnostics issued so far. */
+        final List<StoredDiagnostic> diagnostics = new ArrayList<>();
+
+        /** False if a diagnostic could not be recorded, so the method cannot be cached. */
+        boolean cacheable = true;
+    }
+
+    /** A recording or suppression of the diagnostics for a method. */
+    private static class Frame {
+        /** The method. */
+        final MethodTree method;
+
+        /** The recording, or null if the diagnostics for the method are suppressed. */
+        final @Nullable Recording recording;
+
+        /**
+         * Creates a new Frame.
+         *
+         * @param method the method
+         * @param recording the recording, or null if the diagnostics for the method are suppressed
+         */
+        Frame(MethodTree method, @Nullable Recording recording) {
+            this.method = method;
+            this.recording = recording;
+        }
+    }
+
+    /** A diagnostic, located relative to the method it was issued for. */
+    private static class StoredDiagnostic {
+        /** The kind of the diagnostic. */
+        final Diagnostic.Kind kind;
+
+        /** The message text. */
+        final String message;
+
+        /** The child indices that lead from the method's tree to the diagnostic's tree. */
+        final int[] path;
+
+        /**
+         * Creates a new StoredDiagnostic.
+         *
+         * @param kind the kind of the diagnostic
+         * @param message the message text
+         * @param path the child indices that lead from the method's tree to the diagnostic's tree
+         */
+        StoredDiagnostic(Diagnostic.Kind kind, String message, int[] path) {
+            this.kind = kind;
+            this.message = message;
+            this.path = path;
+        }
+    }
+
+    /** The summaries stored in one cache file. */
+    private static class SummaryFile {
+        /** The cache file. */
+        final Path path;
+
+        /** The summaries, in least-recently-used order. */
+        final Map<String, List<StoredDiagnostic>> summaries =
+                Collections.synchronizedMap(CollectionUtils.createLRUCache(MAX_SUMMARIES));
+
+        /** True if {@link #summaries} changed since the file was read or written. */
+        boolean dirty = false;
+
+        /**
+         * Creates a new SummaryFile and reads the summaries from the file, if it exists. A file
+         * that cannot be read is treated as empty.
+         *
+         * @param path the cache file
+         */
+        SummaryFile(Path path) {
+            this.path = path;
+            if (!Files.exists(path)) {
+                return;
+            }
+            try (DataInputStream in =
+                    new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                read(in);
+            } catch (IOException | RuntimeException e) {
+                summaries.clear();
+            }
+        }
+
+        /**
+         * Stores the summary of a method.
+         *
+         * @param key the key of the method
+         * @param diagnostics the diagnostics issued for the method
+         */
+        void put(String key, List<StoredDiagnostic> diagnostics) {
+            summaries.put(key, diagnostics);
+            dirty = true;
+        }
+
+        /**
+         * Reads the summaries from the given stream.
+         *
+         * @param in the stream
+         * @throws IOException if the stream cannot be read or is not a cache file
+         */
+        private void read(DataInputStream in) throws IOException {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown method summary cache format");
+            }
+            int numSummaries = in.readInt();
+            for (int i = 0; i < numSummaries; i++) {
+                String key = readString(in);
+                int numDiagnostics = in.readInt();
+                List<StoredDiagnostic> diagnostics = new ArrayList<>(numDiagnostics);
+                for (int j = 0; j < numDiagnostics; j++) {
+                    Diagnostic.Kind kind = Diagnostic.Kind.valueOf(readString(in));
+                    String message = readString(in);
+                    int pathLength = in.readInt();
+                    if (pathLength < 0 || pathLength > MAX_STRING_LENGTH) {
+                        throw new IOException("Corrupt method summary cache");
+                    }
+                    int[] treePath = new int[pathLength];
+                    for (int k = 0; k < treePath.length; k++) {
+                        treePath[k] = in.readInt();
+                    }
+                    diagnostics.add(new StoredDiagnostic(kind, message, treePath));
+                }
+                summaries.put(key, diagnostics);
+            }
+        }
+
+        /**
+         * Writes the summaries to the cache file, if they changed. The file is replaced
+         * atomically, so that a concurrent compilation never reads a partial file.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        synchronized void save() throws IOException {
+            if (!dirty) {
+                return;
+            }
+            Path absolute = path.toAbsolutePath();
+            Path tmp = Files.createTempFile(absolute.getParent(), "methodSummaryCache", ".tmp");
+            try {
+                try (OutputStream os = Files.newOutputStream(tmp);
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                    write(out);
+                }
+                Files.move(
+                        tmp,
+                        absolute,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            dirty = false;
+        }
+
+        /**
+         * Writes the summaries to the given stream.
+         *
+         * @param out the stream
+         * @throws IOException if the stream cannot be written
+         */
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(FORMAT_VERSION);
+            synchronized (summaries) {
+                out.writeInt(summaries.size());
+                for (Map.Entry<String, List<StoredDiagnostic>> entry : summaries.entrySet()) {
+                    writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (StoredDiagnostic d : entry.getValue()) {
+                        writeString(out, d.kind.name());
+                        writeString(out, d.message);
+                        out.writeInt(d.path.length);
+                        for (int index : d.path) {
+                            out.writeInt(index);
+                        }
+                    }
+                }
+            }
+        }
+
+        /** Reads a string written by {@link #writeString}. */
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_STRING_LENGTH) {
+                throw new IOException("Corrupt method summary cache");
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Writes a string. Unlike {@link DataOutputStream#writeUTF}, there is no limit on its
+         * length.
+         */
+        private static void writeString(DataOutputStream out, String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
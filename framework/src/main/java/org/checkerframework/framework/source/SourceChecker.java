@@ -218,6 +218,12 @@ import org.plumelib.util.UtilPlume;
     // org.checkerframework.framework.type.ElementAnnotationApplier.apply
     "ignoreInvalidAnnotationLocations",
 
+    // Reuse the diagnostics of methods that have not changed since a previous compilation, instead
+    // of checking them again. The argument is the file in which the diagnostics are stored.
+    // org.checkerframework.framework.source.MethodSummaryCache
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.getMethodSummaryKey
+    "methodSummaryCache",
+
     ///
     /// Partially-annotated libraries
     ///
@@ -234,6 +240,10 @@ import org.plumelib.util.UtilPlume;
     // jar).
     // org.checkerframework.framework.stub.StubParser.warnIfNotFoundIgnoresClasses
     "stubWarnIfNotFoundIgnoresClasses",
+    // Whether to check all stub files, including the annotated JDK, for declarations that are
+    // not found on the class path and declarations that contain no annotations
+    // org.checkerframework.framework.stub.StubVerifier
+    "stubVerify",
     // Whether to print warnings about stub files that overwrite annotations
     // from bytecode.
     "stubWarnIfOverwritesBytecode",
@@ -409,6 +419,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** The source tree that is being scanned. */
     protected @InternedDistinct CompilationUnitTree currentRoot;
 
+    /** The method summary cache, or null if the "methodSummaryCache" option was not given. */
+    private @Nullable MethodSummaryCache methodSummaryCache;
+
     /**
      * If an error is detected in a CompilationUnitTree, skip all future calls of {@link
      * #typeProcess} with that same CompilationUnitTree.
@@ -540,6 +553,16 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return this.processingEnv;
     }
 
+    /**
+     * Returns the cache of diagnostics for methods that have not changed since a previous
+     * compilation, or null if the "methodSummaryCache" command-line option was not given.
+     *
+     * @return the method summary cache, or null
+     */
+    public @Nullable MethodSummaryCache getMethodSummaryCache() {
+        return methodSummaryCache;
+    }
+
     /** Set the processing environment of the current checker. */
     /* This method is protected only to allow the AggregateChecker and BaseTypeChecker to call it. */
     protected void setProcessingEnvironment(ProcessingEnvironment env) {
@@ -816,6 +839,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
         this.messager = processingEnv.getMessager();
         this.messagesProperties = getMessagesProperties();
+        this.methodSummaryCache = MethodSummaryCache.create(this);
 
         this.visitor = createSourceVisitor();
 
@@ -925,6 +949,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
     }
 
+    @Override
+    public void typeProcessingOver() {
+        if (methodSummaryCache != null) {
+            methodSummaryCache.save();
+        }
+        super.typeProcessingOver();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     /// Reporting type-checking errors; most clients use reportError() or reportWarning()
     ///
@@ -1028,6 +1060,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             kind = Kind.MANDATORY_WARNING;
         }
 
+        if (methodSummaryCache != null && !methodSummaryCache.record(kind, messageText, source)) {
+            return;
+        }
+
         if (source instanceof Element) {
             messager.printMessage(kind, messageText, (Element) source);
         } else if (source instanceof Tree) {
@@ -2583,7 +2619,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      *
      * @return Checker Framework version
      */
-    private String getCheckerVersion() {
+    /*package-private*/ String getCheckerVersion() {
         Properties gitProperties = getProperties(getClass(), "/git.properties");
         String version = gitProperties.getProperty("git.build.version");
         if (version != null) {
@@ -482,35 +482,245 @@ public class StubParser {
             Map<Element, AnnotatedTypeMirror> atypes,
             Map<String, Set<AnnotationMirror>> declAnnos,
             boolean isJdkAsStub) {
-        StubParser sp =
-                new StubParser(
-                        filename, atypeFactory, processingEnv, atypes, declAnnos, isJdkAsStub);
+        process(
+                parseToAst(filename, inputStream),
+                atypeFactory,
+                processingEnv,
+                atypes,
+                declAnnos,
+                isJdkAsStub);
+    }
+
+    /**
+     * Parses a stub file to an AST, without processing it. Unlike the other methods of this class,
+     * this method neither uses nor modifies any compiler state, so it may be called on any thread.
+     *
+     * @param filename name of stub file, used only for diagnostic messages
+     * @param inputStream of stub file to parse
+     * @return the AST of the stub file, to be passed to {@link #process}
+     */
+    public static ParsedStubFile parseToAst(String filename, InputStream inputStream) {
         try {
-            sp.parseStubUnit(inputStream);
-            sp.process();
+            return new ParsedStubFile(filename, StaticJavaParser.parseStubUnit(inputStream), null);
         } catch (ParseProblemException e) {
+            return new ParsedStubFile(filename, null, e);
+        }
+    }
+
+    /**
+     * Processes a stub file that was parsed by {@link #parseToAst} and adds annotations to the
+     * maps. Must be called on the compiler thread.
+     *
+     * @param parsed the AST of the stub file
+     * @param atypeFactory AnnotatedTypeFactory to use
+     * @param processingEnv ProcessingEnvironment to use
+     * @param atypes annotated types from this stub file are added to this map
+     * @param declAnnos map from a name (actually declaration element string) to the set of
+     *     declaration annotations on it. Declaration annotations from this stub file are added to
+     *     this map.
+     * @param isJdkAsStub whether or not the stub file is a part of the annotated jdk
+     */
+    public static void process(
+            ParsedStubFile parsed,
+            AnnotatedTypeFactory atypeFactory,
+            ProcessingEnvironment processingEnv,
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos,
+            boolean isJdkAsStub) {
+        StubParser sp =
+                new StubParser(
+                        parsed.filename,
+                        atypeFactory,
+                        processingEnv,
+                        atypes,
+                        declAnnos,
+                        isJdkAsStub);
+        if (parsed.problem != null) {
             StringJoiner message = new StringJoiner(LINE_SEPARATOR);
             message.add(
-                    e.getProblems().size() + " problems while parsing stub file " + filename + ":");
+                    parsed.problem.getProblems().size()
+                            + " problems while parsing stub file "
+                            + parsed.filename
+                            + ":");
             // Manually build up the message, to get verbose location information.
-            for (Problem p : e.getProblems()) {
+            for (Problem p : parsed.problem.getProblems()) {
                 message.add(p.getVerboseMessage());
             }
             sp.stubWarn(message.toString());
+            return;
+        }
+        sp.setStubUnit(parsed.stubUnit);
+        sp.process();
+    }
+
+    /**
+     * Like {@link #process}, but defers the processing of each top-level type declaration in the
+     * stub file. Package declarations and imports are processed immediately. For each top-level
+     * type declaration, a {@link DeferredTypeDecl} is added to {@code deferredTypeDecls}, under
+     * the fully-qualified name of the type; the caller must {@link DeferredTypeDecl#process} it
+     * before any annotation on the type or its members is requested.
+     *
+     * <p>Type declarations are processed immediately if any of the command-line options that warn
+     * about individual declarations, such as {@code -AstubWarnIfNotFound}, is passed, so that
+     * those warnings are issued for all declarations, including ones that are never used.
+     *
+     * @param parsed the AST of the stub file
+     * @param atypeFactory AnnotatedTypeFactory to use
+     * @param processingEnv ProcessingEnvironment to use
+     * @param atypes annotated types from this stub file are added to this map
+     * @param declAnnos map from a name (actually declaration element string) to the set of
+     *     declaration annotations on it. Declaration annotations from this stub file are added to
+     *     this map.
+     * @param deferredTypeDecls map from the fully-qualified name of a type to its declarations
+     *     whose processing has been deferred, in the order in which they should be processed. The
+     *     type declarations of this stub file are added to this map.
+     */
+    public static void processLazily(
+            ParsedStubFile parsed,
+            AnnotatedTypeFactory atypeFactory,
+            ProcessingEnvironment processingEnv,
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos,
+            Map<String, List<DeferredTypeDecl>> deferredTypeDecls) {
+        StubParser sp =
+                new StubParser(
+                        parsed.filename, atypeFactory, processingEnv, atypes, declAnnos, false);
+        if (parsed.problem != null
+                || sp.warnIfNotFound
+                || sp.warnIfStubOverwritesBytecode
+                || sp.warnIfStubRedundantWithBytecode
+                || sp.debugStubParser) {
+            process(parsed, atypeFactory, processingEnv, atypes, declAnnos, false);
+            return;
+        }
+        sp.setStubUnit(parsed.stubUnit);
+        for (CompilationUnit cu : sp.stubUnit.getCompilationUnits()) {
+            String packageName;
+            List<AnnotationExpr> packageAnnos;
+            if (!cu.getPackageDeclaration().isPresent()) {
+                packageName = null;
+                packageAnnos = null;
+            } else {
+                PackageDeclaration pDecl = cu.getPackageDeclaration().get();
+                packageName = pDecl.getNameAsString();
+                packageAnnos = pDecl.getAnnotations();
+                sp.processPackage(pDecl);
+            }
+            if (cu.getTypes() != null) {
+                for (TypeDeclaration<?> typeDecl : cu.getTypes()) {
+                    String fqTypeName =
+                            new FqName(packageName, typeDecl.getNameAsString()).toString();
+                    deferredTypeDecls
+                            .computeIfAbsent(fqTypeName, k -> new ArrayList<>())
+                            .add(new DeferredTypeDecl(sp, packageName, packageAnnos, typeDecl));
+                }
+            }
+        }
+    }
+
+    /**
+     * A top-level type declaration in a stub file whose processing has been deferred by {@link
+     * #processLazily}.
+     */
+    public static final class DeferredTypeDecl {
+        /** The parser of the stub file that contains the type declaration. */
+        private final StubParser parser;
+
+        /** Name of the package that contains the type declaration, or null. */
+        private final @Nullable String packageName;
+
+        /** The annotations on the package declaration of the stub file, or null. */
+        private final @Nullable List<AnnotationExpr> packageAnnos;
+
+        /** The type declaration. */
+        private final TypeDeclaration<?> typeDecl;
+
+        /**
+         * Creates a new DeferredTypeDecl.
+         *
+         * @param parser the parser of the stub file that contains the type declaration
+         * @param packageName name of the package that contains the type declaration, or null
+         * @param packageAnnos the annotations on the package declaration, or null
+         * @param typeDecl the type declaration
+         */
+        private DeferredTypeDecl(
+                StubParser parser,
+                @Nullable String packageName,
+                @Nullable List<AnnotationExpr> packageAnnos,
+                TypeDeclaration<?> typeDecl) {
+            this.parser = parser;
+            this.packageName = packageName;
+            this.packageAnnos = packageAnnos;
+            this.typeDecl = typeDecl;
+        }
+
+        /**
+         * Processes the type declaration and adds its annotations to the maps that were passed to
+         * {@link #processLazily}. Must be called on the compiler thread, at most once.
+         */
+        public void process() {
+            parser.typeName = new FqName(packageName, null);
+            parser.processTypeDecl(typeDecl, null, packageAnnos);
+        }
+    }
+
+    /** A stub file that has been parsed to an AST by {@link #parseToAst}, but not processed. */
+    public static final class ParsedStubFile {
+        /** Name of the stub file, used only for diagnostic messages. */
+        private final String filename;
+
+        /** The AST of the stub file, or null if it could not be parsed. */
+        private final @Nullable StubUnit stubUnit;
+
+        /** The problems encountered while parsing the stub file, or null if there were none. */
+        private final @Nullable ParseProblemException problem;
+
+        /**
+         * Creates a new ParsedStubFile.
+         *
+         * @param filename name of the stub file
+         * @param stubUnit the AST of the stub file, or null if it could not be parsed
+         * @param problem the problems encountered while parsing, or null if there were none
+         */
+        private ParsedStubFile(
+                String filename,
+                @Nullable StubUnit stubUnit,
+                @Nullable ParseProblemException problem) {
+            this.filename = filename;
+            this.stubUnit = stubUnit;
+            this.problem = problem;
+        }
+
+        /**
+         * Returns the name of the stub file.
+         *
+         * @return the name of the stub file, used only for diagnostic messages
+         */
+        /*package-scope*/ String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Returns the AST of the stub file.
+         *
+         * @return the AST of the stub file, or null if it could not be parsed
+         */
+        /*package-scope*/ @Nullable StubUnit getStubUnit() {
+            return stubUnit;
         }
     }
 
     /**
-     * Delegate to the Stub Parser to parse the stub file to an AST, and save it in {@link
-     * #stubUnit}. Subsequently, all work uses the AST.
+     * Save the AST of the stub file in {@link #stubUnit}, and collect the annotations that it
+     * imports. Subsequently, all work uses the AST.
      *
-     * @param inputStream the stream from which to read a stub file
+     * @param stubUnit the AST of a stub file
      */
-    private void parseStubUnit(InputStream inputStream) {
+    private void setStubUnit(StubUnit stubUnit) {
         if (debugStubParser) {
             stubDebug(String.format("parsing stub file %s", filename));
         }
-        stubUnit = StaticJavaParser.parseStubUnit(inputStream);
+        this.stubUnit = stubUnit;
 
         // getAllStubAnnotations() also modifies importedConstants and importedTypes. This should
         // be refactored to be nicer.
@@ -527,7 +737,7 @@ public class StubParser {
         allStubAnnotations.putAll(annosInPackage(findPackage("java.lang")));
     }
 
-    /** Process {@link #stubUnit}, which is the AST produced by {@link #parseStubUnit}. */
+    /** Process {@link #stubUnit}, which is the AST set by {@link #setStubUnit}. */
     private void process() {
         processStubUnit(this.stubUnit);
     }
@@ -1,12 +1,15 @@
 package org.checkerframework.framework.stub;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -16,16 +19,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic.Kind;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.StubFiles;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -58,14 +67,23 @@ public class StubTypes {
 
     /**
      * Mapping from fully-qualified class name to corresponding JDK stub file from the file system.
+     * The package-info.java file of package p is stored under the name "p.package-info".
      */
     private final Map<String, Path> jdkStubFiles = new HashMap<>();
 
     /**
      * Mapping from fully-qualified class name to corresponding JDK stub files from the checker.jar.
+     * The package-info.java file of package p is stored under the name "p.package-info".
      */
     private final Map<String, String> jdkStubFilesJar = new HashMap<>();
 
+    /**
+     * The name of the index of the annotated JDK, relative to the annotated JDK directory. The
+     * index lists the relative path of every annotated JDK file, one per line. It is generated
+     * when the Checker Framework is built, so that the files need not be listed at run time.
+     */
+    private static final String JDK_INDEX_NAME = "jdk.index";
+
     /** Which version number of the annotated JDK should be used? */
     private final String annotatedJdkVersion;
 
@@ -75,6 +93,22 @@ public class StubTypes {
     /** Parse all JDK files at startup rather than as needed. */
     private final boolean parseAllJdkFiles;
 
+    /**
+     * Map from the fully-qualified name of a top-level type to its declarations in stub files that
+     * are not part of the annotated JDK, in the order in which they are processed. A user stub
+     * file may declare thousands of classes, of which a compilation uses only a few, so each type
+     * declaration is processed only when an annotation in the type is first requested; see {@link
+     * #parseEnclosingClass}. Entries are removed once they are processed.
+     */
+    private final Map<String, List<StubParser.DeferredTypeDecl>> deferredTypeDecls =
+            new HashMap<>();
+
+    /**
+     * The jar file that contains the annotated JDK, while all of its files are being parsed with
+     * {@code -AparseAllJdk}; null otherwise.
+     */
+    private @Nullable JarFile jdkJarFile = null;
+
     /**
      * Creates a stub type.
      *
@@ -108,7 +142,6 @@ public class StubTypes {
      * <ol>
      *   <li>jdk.astub in the same directory as the checker, if it exists and ignorejdkastub option
      *       is not supplied <br>
-     *   <li>If parsing a JDK as stub files, all package-info.java in the jdk directory <br>
      *   <li>Stub files listed in @StubFiles annotation on the checker; must be in same directory as
      *       the checker <br>
      *   <li>Stub files provide via stubs system property <br>
@@ -120,41 +153,57 @@ public class StubTypes {
      * file, the qualifier in the last stub file is applied.
      *
      * <p>If using JDK 11, then the JDK stub files are only parsed if a type or declaration
-     * annotation is requested from a class in that file.
+     * annotation is requested from a class in that file. The package-info.java file of a package
+     * in the annotated JDK is parsed when an annotation is requested from the package or from an
+     * element in it.
+     *
+     * <p>The other stub files are parsed right away, but each type declaration in them is only
+     * processed when an annotation is requested from the type or from an element in it.
      */
     public void parseStubFiles() {
         parsing = true;
         // TODO: Error if this is called more than once?
         SourceChecker checker = factory.getContext().getChecker();
-        ProcessingEnvironment processingEnv = factory.getProcessingEnv();
+        // The stub files to parse, in the order in which they are merged.
+        List<StubSource> sources = new ArrayList<>();
+        try {
+            collectStubFiles(checker, sources);
+            parseInParallel(sources);
+        } finally {
+            closeJdkJarFile();
+        }
+        parsing = false;
+    }
+
+    /**
+     * Collects the stub files to parse, in the order given in the documentation of {@link
+     * #parseStubFiles}. Issues a warning for each stub file that cannot be found.
+     *
+     * @param checker the checker
+     * @param sources the list to which to add the stub files
+     */
+    private void collectStubFiles(SourceChecker checker, List<StubSource> sources) {
         // 1. jdk.astub
-        // Only look in .jar files, and parse it right away.
+        // Only look in .jar files.
         if (!checker.hasOption("ignorejdkastub")) {
             InputStream jdkStubIn = checker.getClass().getResourceAsStream("jdk.astub");
             if (jdkStubIn != null) {
-                StubParser.parse(
-                        checker.getClass().getResource("jdk.astub").toString(),
-                        jdkStubIn,
-                        factory,
-                        processingEnv,
-                        typesFromStubFiles,
-                        declAnnosFromStubFiles);
+                sources.add(
+                        new StubSource(
+                                checker.getClass().getResource("jdk.astub").toString(),
+                                () -> jdkStubIn,
+                                false));
             }
             String jdkVersionStub = "jdk" + annotatedJdkVersion + ".astub";
             InputStream jdkVersionStubIn = checker.getClass().getResourceAsStream(jdkVersionStub);
             if (jdkVersionStubIn != null) {
-                StubParser.parse(
-                        checker.getClass().getResource(jdkVersionStub).toString(),
-                        jdkVersionStubIn,
-                        factory,
-                        processingEnv,
-                        typesFromStubFiles,
-                        declAnnosFromStubFiles);
+                sources.add(
+                        new StubSource(
+                                checker.getClass().getResource(jdkVersionStub).toString(),
+                                () -> jdkVersionStubIn,
+                                false));
             }
-            prepJdkStubs();
-            // prepping the Jdk will parse all package-info.java files.  This sets parsing to false,
-            // so re-set it to true.
-            parsing = true;
+            prepJdkStubs(sources);
         }
 
         // Stub files specified via stubs compiler option, stubs system property,
@@ -248,35 +297,256 @@ public class StubTypes {
                                                 : (" or at " + stubPathFull)));
                     }
                 } else {
-                    StubParser.parse(
-                            stubPath,
-                            in,
-                            factory,
-                            processingEnv,
-                            typesFromStubFiles,
-                            declAnnosFromStubFiles);
+                    sources.add(new StubSource(stubPath, () -> in, false));
                 }
             }
             for (StubResource resource : stubs) {
-                InputStream stubStream;
-                try {
-                    stubStream = resource.getInputStream();
-                } catch (IOException e) {
-                    checker.message(
-                            Kind.NOTE,
-                            "Could not read stub resource: " + resource.getDescription());
-                    continue;
+                sources.add(
+                        new StubSource(
+                                resource.getDescription(), resource::getInputStream, false));
+            }
+        }
+    }
+
+    /**
+     * Parses the given stub files and adds their annotations to {@link #typesFromStubFiles} and
+     * {@link #declAnnosFromStubFiles}. The type declarations in stub files that are not part of the
+     * annotated JDK are only indexed, in {@link #deferredTypeDecls}, and processed when an
+     * annotation in the type is first requested.
+     *
+     * <p>Reading and parsing a file to an AST does not depend on any compiler state, so it is done
+     * on a pool of worker threads. Converting the ASTs into annotated types and declaration
+     * annotations uses javac and the type factory, so it is done on the current thread, one file
+     * at a time, in the order of {@code sources}. Therefore, the result, including the order of
+     * warnings and the resolution of conflicting annotations, is the same as if the files were
+     * parsed one after the other.
+     *
+     * <p>With {@code -AstubVerify}, the type factory of the root checker also checks each stub
+     * file with a {@link StubVerifier}, as well as the files of the annotated JDK that are
+     * otherwise only parsed when they are needed.
+     *
+     * @param sources the stub files to parse, in the order in which to process them
+     */
+    private void parseInParallel(List<StubSource> sources) {
+        SourceChecker checker = factory.getContext().getChecker();
+        // Subcheckers use the same annotated JDK and mostly the same stub files, so only the
+        // root checker verifies them, once per compilation.
+        StubVerifier verifier =
+                checker.hasOption("stubVerify") && checker.getParentChecker() == null
+                        ? new StubVerifier(factory.getProcessingEnv())
+                        : null;
+        forEachParsed(
+                sources,
+                (source, parsed) -> {
+                    if (verifier != null) {
+                        verifier.verify(parsed, source.isJdkAsStub);
+                    }
+                    if (source.isJdkAsStub) {
+                        StubParser.process(
+                                parsed,
+                                factory,
+                                factory.getProcessingEnv(),
+                                typesFromStubFiles,
+                                declAnnosFromStubFiles,
+                                true);
+                    } else {
+                        StubParser.processLazily(
+                                parsed,
+                                factory,
+                                factory.getProcessingEnv(),
+                                typesFromStubFiles,
+                                declAnnosFromStubFiles,
+                                deferredTypeDecls);
+                    }
+                });
+        if (verifier != null) {
+            forEachParsed(
+                    getLazyJdkSources(),
+                    (source, parsed) -> verifier.verify(parsed, source.isJdkAsStub));
+            verifier.reportSummary();
+        }
+    }
+
+    /**
+     * Returns the files of the annotated JDK that are parsed only when they are needed, that is,
+     * the files in {@link #jdkStubFiles} and {@link #jdkStubFilesJar}.
+     *
+     * @return the files of the annotated JDK that have not been added to the stub files to parse
+     */
+    private List<StubSource> getLazyJdkSources() {
+        List<StubSource> result = new ArrayList<>(jdkStubFiles.size() + jdkStubFilesJar.size());
+        for (Path path : jdkStubFiles.values()) {
+            result.add(
+                    new StubSource(
+                            path.toFile().getName(),
+                            () -> new FileInputStream(path.toFile()),
+                            true));
+        }
+        for (String jarEntryName : jdkStubFilesJar.values()) {
+            result.add(
+                    new StubSource(
+                            jarEntryName,
+                            () -> {
+                                JarFile jarFile = getJdkJarFile();
+                                return jarFile.getInputStream(jarFile.getJarEntry(jarEntryName));
+                            },
+                            true));
+        }
+        return result;
+    }
+
+    /**
+     * The number of stub files per worker thread that {@link #forEachParsed} parses ahead of the
+     * stub file that it passes to its action. This bounds the number of ASTs held in memory.
+     */
+    private static final int PARSES_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Parses the given stub files to ASTs on a pool of worker threads, and passes each AST to
+     * {@code action} on the current thread, in the order of {@code sources}. At most {@link
+     * #PARSES_IN_FLIGHT_PER_THREAD} stub files per thread are parsed, or waiting to be passed to
+     * {@code action}, at a time; the next one is started as each AST is passed to {@code action}.
+     *
+     * @param sources the stub files to parse
+     * @param action what to do with each parsed stub file; it is not called for a user-supplied
+     *     stub file that cannot be read
+     */
+    private void forEachParsed(
+            List<StubSource> sources, BiConsumer<StubSource, StubParser.ParsedStubFile> action) {
+        int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), sources.size());
+        ExecutorService executor = null;
+        if (numThreads > 1) {
+            executor =
+                    Executors.newFixedThreadPool(
+                            numThreads,
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "stub-parser");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+        }
+        // Without a pool, each stub file is parsed just before it is passed to action.
+        int window = executor == null ? 1 : PARSES_IN_FLIGHT_PER_THREAD * numThreads;
+        try {
+            List<FutureTask<StubParser.ParsedStubFile>> tasks = new ArrayList<>(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                int end = Math.min(sources.size(), i + window);
+                while (tasks.size() < end) {
+                    tasks.add(startParse(sources.get(tasks.size()), executor));
+                }
+                StubSource source = sources.get(i);
+                StubParser.ParsedStubFile parsed = getParsedStubFile(source, tasks.get(i));
+                // Drop the reference to the AST, so that it can be garbage-collected.
+                tasks.set(i, null);
+                if (parsed != null) {
+                    action.accept(source, parsed);
                 }
-                StubParser.parse(
-                        resource.getDescription(),
-                        stubStream,
-                        factory,
-                        processingEnv,
-                        typesFromStubFiles,
-                        declAnnosFromStubFiles);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Starts parsing the given stub file.
+     *
+     * @param source the stub file
+     * @param executor the pool of worker threads to parse on, or null to parse on the current
+     *     thread before returning
+     * @return the task that parses {@code source}
+     */
+    private static FutureTask<StubParser.ParsedStubFile> startParse(
+            StubSource source, @Nullable ExecutorService executor) {
+        FutureTask<StubParser.ParsedStubFile> task = new FutureTask<>(source::parseToAst);
+        if (executor == null) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Waits for the given stub file to be parsed and returns its AST.
+     *
+     * @param source the stub file
+     * @param task the task that parses {@code source}
+     * @return the AST of {@code source}, or null if a user-supplied stub file could not be read
+     */
+    private StubParser.@Nullable ParsedStubFile getParsedStubFile(
+            StubSource source, FutureTask<StubParser.ParsedStubFile> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BugInCF("interrupted while parsing " + source.filename, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                if (source.isJdkAsStub) {
+                    throw new BugInCF("cannot open the jdk stub file " + source.filename, cause);
+                }
+                factory.getContext()
+                        .getChecker()
+                        .message(Kind.NOTE, "Could not read stub resource: " + source.filename);
+                return null;
+            }
+            throw new BugInCF("Exception while parsing " + source.filename, cause);
+        }
+    }
+
+    /**
+     * Supplies the contents of a stub file. Unlike {@link java.util.function.Supplier}, it may
+     * throw an IOException.
+     */
+    @FunctionalInterface
+    private interface StubOpener {
+        /**
+         * Returns a stream that reads the stub file.
+         *
+         * @return a stream that reads the stub file
+         * @throws IOException if the stub file cannot be opened
+         */
+        InputStream open() throws IOException;
+    }
+
+    /** A stub file that is to be parsed. */
+    private static class StubSource {
+        /** Name of the stub file, used only for diagnostic messages. */
+        final String filename;
+
+        /** Opens the stub file. */
+        final StubOpener opener;
+
+        /** Whether the stub file is a part of the annotated JDK. */
+        final boolean isJdkAsStub;
+
+        /**
+         * Creates a new StubSource.
+         *
+         * @param filename name of the stub file, used only for diagnostic messages
+         * @param opener opens the stub file
+         * @param isJdkAsStub whether the stub file is a part of the annotated JDK
+         */
+        StubSource(String filename, StubOpener opener, boolean isJdkAsStub) {
+            this.filename = filename;
+            this.opener = opener;
+            this.isJdkAsStub = isJdkAsStub;
+        }
+
+        /**
+         * Reads and parses the stub file. May be called on any thread.
+         *
+         * @return the AST of the stub file
+         * @throws IOException if the stub file cannot be read
+         */
+        StubParser.ParsedStubFile parseToAst() throws IOException {
+            try (InputStream in = opener.open()) {
+                return StubParser.parseToAst(filename, in);
             }
         }
-        parsing = false;
     }
 
     /**
@@ -321,25 +591,65 @@ public class StubTypes {
     }
 
     /**
-     * Parses the outermost enclosing class of {@code e} if there exists a stub file for it and it
-     * has not already been parsed.
+     * Parses the package-info.java file of the package of {@code e} and the outermost enclosing
+     * class of {@code e}, if there exist stub files for them and they have not already been
+     * parsed.
      *
-     * @param e element whose outermost enclosing class will be parsed
+     * @param e element whose package and outermost enclosing class will be parsed
      */
     private void parseEnclosingClass(Element e) {
-        if (!shouldParseJdk) {
+        if (!shouldParseJdk && deferredTypeDecls.isEmpty()) {
             return;
         }
+        if (shouldParseJdk) {
+            PackageElement packageElement = ElementUtils.enclosingPackage(e);
+            if (packageElement != null) {
+                parseJdkFile(packageElement.getQualifiedName() + ".package-info");
+            }
+        }
         String className = getOuterMostEnclosingClass(e);
         if (className == null) {
             return;
         }
-        if (jdkStubFiles.containsKey(className)) {
-            parseStubFile(jdkStubFiles.get(className));
-            jdkStubFiles.remove(className);
-        } else if (jdkStubFilesJar.containsKey(className)) {
-            parseJarEntry(jdkStubFilesJar.get(className));
-            jdkStubFilesJar.remove(className);
+        processDeferredTypeDecls(className);
+        if (shouldParseJdk) {
+            parseJdkFile(className);
+        }
+    }
+
+    /**
+     * Processes the declarations of the given type in stub files that are not part of the
+     * annotated JDK, if there are any and they have not already been processed.
+     *
+     * @param className the fully-qualified name of a top-level type
+     */
+    private void processDeferredTypeDecls(String className) {
+        List<StubParser.DeferredTypeDecl> typeDecls = deferredTypeDecls.remove(className);
+        if (typeDecls == null) {
+            return;
+        }
+        boolean wasParsing = parsing;
+        parsing = true;
+        try {
+            for (StubParser.DeferredTypeDecl typeDecl : typeDecls) {
+                typeDecl.process();
+            }
+        } finally {
+            parsing = wasParsing;
+        }
+    }
+
+    /**
+     * Parses the annotated JDK file with the given name, if it exists and has not already been
+     * parsed.
+     *
+     * @param name the fully-qualified name of a class, or "p.package-info" for package p
+     */
+    private void parseJdkFile(String name) {
+        if (jdkStubFiles.containsKey(name)) {
+            parseStubFile(jdkStubFiles.remove(name));
+        } else if (jdkStubFilesJar.containsKey(name)) {
+            parseJarEntry(jdkStubFilesJar.remove(name));
         }
     }
 
@@ -422,6 +732,35 @@ public class StubTypes {
         }
     }
 
+    /**
+     * Returns the jar file that contains the annotated JDK, opening it if necessary. It is shared
+     * by all threads that parse annotated JDK files with {@code -AparseAllJdk}, and closed by
+     * {@link #closeJdkJarFile} once they are done.
+     *
+     * @return the jar file that contains the annotated JDK
+     * @throws IOException if the jar file cannot be opened
+     */
+    private synchronized JarFile getJdkJarFile() throws IOException {
+        if (jdkJarFile == null) {
+            jdkJarFile = getJarURLConnectionToJdk().getJarFile();
+        }
+        return jdkJarFile;
+    }
+
+    /** Closes the jar file opened by {@link #getJdkJarFile}, if any. */
+    private synchronized void closeJdkJarFile() {
+        if (jdkJarFile == null) {
+            return;
+        }
+        try {
+            jdkJarFile.close();
+        } catch (IOException e) {
+            throw new BugInCF("cannot close the Jar file " + jdkJarFile.getName(), e);
+        } finally {
+            jdkJarFile = null;
+        }
+    }
+
     /**
      * Returns a JarURLConnection to "/jdk*".
      *
@@ -447,9 +786,12 @@ public class StubTypes {
 
     /**
      * Walk through the jdk directory and create a mapping, {@link #jdkStubFiles}, from file name to
-     * the class contained with in it. Also, parses all package-info.java files.
+     * the class contained with in it. With {@code -AparseAllJdk}, instead adds all files of the
+     * annotated JDK to {@code sources}.
+     *
+     * @param sources the list to which to add the annotated JDK files, with {@code -AparseAllJdk}
      */
-    private void prepJdkStubs() {
+    private void prepJdkStubs(List<StubSource> sources) {
         if (!shouldParseJdk) {
             return;
         }
@@ -462,9 +804,9 @@ public class StubTypes {
             }
             throw new BugInCF("JDK not found");
         } else if (resourceURL.getProtocol().contentEquals("jar")) {
-            prepJdkFromJar(resourceURL);
+            prepJdkFromJar(resourceURL, sources);
         } else if (resourceURL.getProtocol().contentEquals("file")) {
-            prepJdkFromFile(resourceURL);
+            prepJdkFromFile(resourceURL, sources);
         } else {
             if (factory.getContext().getChecker().hasOption("permitMissingJdk")
                     // temporary, for backward compatibility
@@ -476,12 +818,14 @@ public class StubTypes {
     }
 
     /**
-     * Walk through the jdk directory and create a mapping, {@link #jdkStubFiles}, from file name to
-     * the class contained with in it. Also, parses all package-info.java files.
+     * Create a mapping, {@link #jdkStubFiles}, from class name to the file in the jdk directory
+     * that contains it. Uses the index of the annotated JDK if there is one, and otherwise walks
+     * through the jdk directory.
      *
      * @param resourceURL the URL pointing to the JDK directory
+     * @param sources the list to which to add the annotated JDK files, with {@code -AparseAllJdk}
      */
-    private void prepJdkFromFile(URL resourceURL) {
+    private void prepJdkFromFile(URL resourceURL, List<StubSource> sources) {
         Path root;
         try {
             root = Paths.get(resourceURL.toURI());
@@ -489,71 +833,124 @@ public class StubTypes {
             throw new BugInCF("Can parse URL: " + resourceURL.toString(), e);
         }
 
-        try (Stream<Path> walk = Files.walk(root)) {
-            List<Path> paths =
-                    walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
-                            .collect(Collectors.toList());
-            for (Path path : paths) {
-                if (path.getFileName().toString().equals("package-info.java")) {
-                    parseStubFile(path);
-                    continue;
-                }
-                if (path.getFileName().toString().equals("module-info.java")) {
+        List<String> index = readJdkIndex();
+        List<Path> paths;
+        if (index != null) {
+            paths = new ArrayList<>(index.size());
+            for (String relativeName : index) {
+                paths.add(root.resolve(relativeName));
+            }
+        } else {
+            try (Stream<Path> walk = Files.walk(root)) {
+                paths =
+                        walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+                                .collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new BugInCF("prepJdkFromFile(" + resourceURL + ")", e);
+            }
+        }
+        for (Path path : paths) {
+            if (path.getFileName().toString().equals("module-info.java")) {
+                // JavaParser can't parse module-info files, so skip them.
+                continue;
+            }
+            if (parseAllJdkFiles) {
+                sources.add(
+                        new StubSource(
+                                path.toFile().getName(),
+                                () -> new FileInputStream(path.toFile()),
+                                true));
+                continue;
+            }
+            Path relativePath = root.relativize(path);
+            // 4: /src/<module>/share/classes
+            Path savepath = relativePath.subpath(4, relativePath.getNameCount());
+            String s = savepath.toString().replace(".java", "").replace(File.separatorChar, '.');
+            jdkStubFiles.put(s, path);
+        }
+    }
+
+    /**
+     * Create a mapping, {@link #jdkStubFilesJar}, from class name to the entry of the jar file
+     * that contains it. Uses the index of the annotated JDK if there is one, and otherwise walks
+     * through the entries of the jar file.
+     *
+     * @param resourceURL the URL pointing to the JDK directory
+     * @param sources the list to which to add the annotated JDK files, with {@code -AparseAllJdk}
+     */
+    private void prepJdkFromJar(URL resourceURL, List<StubSource> sources) {
+        List<String> index = readJdkIndex();
+        List<String> jarEntryNames;
+        if (index != null) {
+            jarEntryNames = new ArrayList<>(index.size());
+            for (String relativeName : index) {
+                jarEntryNames.add("annotated-jdk/" + relativeName);
+            }
+        } else {
+            JarURLConnection connection = getJarURLConnectionToJdk();
+            try (JarFile jarFile = connection.getJarFile()) {
+                jarEntryNames =
+                        jarFile.stream()
+                                .filter(jarEntry -> !jarEntry.isDirectory())
+                                .map(JarEntry::getName)
+                                .collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new BugInCF("cannot open the Jar file " + resourceURL.getFile(), e);
+            }
+        }
+
+        for (String jarEntryName : jarEntryNames) {
+            // filter out non-class files
+            if (jarEntryName.endsWith(".java")
+                    && jarEntryName.startsWith("annotated-jdk")
                     // JavaParser can't parse module-info files, so skip them.
-                    continue;
-                }
+                    && !jarEntryName.contains("module-info")) {
                 if (parseAllJdkFiles) {
-                    parseStubFile(path);
+                    sources.add(
+                            new StubSource(
+                                    jarEntryName,
+                                    () -> {
+                                        JarFile jarFile = getJdkJarFile();
+                                        return jarFile.getInputStream(
+                                                jarFile.getJarEntry(jarEntryName));
+                                    },
+                                    true));
                     continue;
                 }
-                Path relativePath = root.relativize(path);
-                // 4: /src/<module>/share/classes
-                Path savepath = relativePath.subpath(4, relativePath.getNameCount());
-                String s =
-                        savepath.toString().replace(".java", "").replace(File.separatorChar, '.');
-                jdkStubFiles.put(s, path);
+                int classesIndex = jarEntryName.indexOf("/share/classes/");
+                String shortName =
+                        jarEntryName
+                                .substring(classesIndex + "/share/classes/".length())
+                                .replace(".java", "")
+                                .replace('/', '.');
+                jdkStubFilesJar.put(shortName, jarEntryName);
             }
-        } catch (IOException e) {
-            throw new BugInCF("prepJdkFromFile(" + resourceURL + ")", e);
         }
     }
 
     /**
-     * Walk through the jdk directory and create a mapping, {@link #jdkStubFilesJar}, from file name
-     * to the class contained with in it. Also, parses all package-info.java files.
+     * Reads the index of the annotated JDK, which lists the path of every annotated JDK file
+     * relative to the annotated JDK directory.
      *
-     * @param resourceURL the URL pointing to the JDK directory
+     * @return the relative paths of the annotated JDK files, or null if there is no index
      */
-    private void prepJdkFromJar(URL resourceURL) {
-        JarURLConnection connection = getJarURLConnectionToJdk();
-
-        try (JarFile jarFile = connection.getJarFile()) {
-            for (JarEntry jarEntry : jarFile.stream().collect(Collectors.toList())) {
-                // filter out directories and non-class files
-                if (!jarEntry.isDirectory()
-                        && jarEntry.getName().endsWith(".java")
-                        && jarEntry.getName().startsWith("annotated-jdk")
-                        // JavaParser can't parse module-info files, so skip them.
-                        && !jarEntry.getName().contains("module-info")) {
-                    String jarEntryName = jarEntry.getName();
-                    if (parseAllJdkFiles) {
-                        parseJarEntry(jarEntryName);
-                        continue;
-                    }
-                    int index = jarEntry.getName().indexOf("/share/classes/");
-                    String shortName =
-                            jarEntryName
-                                    .substring(index + "/share/classes/".length())
-                                    .replace(".java", "")
-                                    .replace('/', '.');
-                    jdkStubFilesJar.put(shortName, jarEntryName);
-                    if (jarEntryName.endsWith("package-info.java")) {
-                        parseJarEntry(jarEntryName);
-                    }
+    private @Nullable List<String> readJdkIndex() {
+        InputStream in = factory.getClass().getResourceAsStream("/annotated-jdk/" + JDK_INDEX_NAME);
+        if (in == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    result.add(line);
                 }
             }
         } catch (IOException e) {
-            throw new BugInCF("cannot open the Jar file " + resourceURL.getFile(), e);
+            throw new BugInCF("cannot read the annotated JDK index", e);
         }
+        return result;
     }
 }
@@ -0,0 +1,315 @@
+package org.checkerframework.framework.stub;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.ElementUtils;
+
+/**
+ * Checks the declarations in stub files against the classes on the classpath, without processing
+ * any annotations. Enabled by the {@code -AstubVerify} command-line option.
+ *
+ * <p>Unlike {@code -AstubWarnIfNotFound}, which reports the declarations that are not found while
+ * the annotations of a stub file are processed, the verifier also checks the files of the annotated
+ * JDK that a compilation never loads, and it does not convert any type in a stub file to an
+ * annotated type. {@link StubTypes} parses all stub files in parallel and hands each AST to {@link
+ * #verify}, which resolves its declarations against {@link Elements}. The verifier reports each
+ * declaration that is not found on the classpath as a warning, and so is each declaration of a
+ * method, constructor, field, or enum constant that was already declared in a stub file, because
+ * the annotations of only one of the declarations take effect. {@link #reportSummary} reports the
+ * totals as a note.
+ *
+ * <p>A type may be declared in several stub files, each of which declares some of its members. A
+ * declaration that contains no annotation is not reported either: it is not redundant, because the
+ * defaults that apply to an element declared in a stub file differ from those that apply to an
+ * element from bytecode.
+ */
+public class StubVerifier {
+
+    /** The processing environment, used to issue diagnostics. */
+    private final ProcessingEnvironment processingEnv;
+
+    /** The element utilities, used to resolve the declarations in stub files. */
+    private final Elements elements;
+
+    /** The number of stub files that have been verified. */
+    private int fileCount = 0;
+
+    /** The number of declarations that have been verified. */
+    private int declarationCount = 0;
+
+    /** The number of declarations that were not found. */
+    private int notFoundCount = 0;
+
+    /** The number of declarations of members that were already declared. */
+    private int redundantCount = 0;
+
+    /** Maps each member declared in a verified stub file to the name of that stub file. */
+    private final Map<Element, String> declaringFiles = new HashMap<>();
+
+    /** The name of the stub file that is currently being verified. */
+    private String filename = "";
+
+    /** Whether the stub file that is currently being verified is a part of the annotated JDK. */
+    private boolean isJdkAsStub = false;
+
+    /**
+     * Creates a new StubVerifier.
+     *
+     * @param processingEnv the processing environment
+     */
+    public StubVerifier(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+        this.elements = processingEnv.getElementUtils();
+    }
+
+    /**
+     * Verifies the declarations of a stub file that was parsed by {@link StubParser#parseToAst}.
+     * Must be called on the compiler thread.
+     *
+     * @param parsed the AST of the stub file
+     * @param isJdkAsStub whether the stub file is a part of the annotated JDK
+     */
+    public void verify(StubParser.ParsedStubFile parsed, boolean isJdkAsStub) {
+        this.filename = parsed.getFilename();
+        this.isJdkAsStub = isJdkAsStub;
+        fileCount++;
+        if (parsed.getStubUnit() == null) {
+            // StubParser reports the parse problems of the files that it processes.
+            warn("could not be parsed");
+            return;
+        }
+        for (CompilationUnit cu : parsed.getStubUnit().getCompilationUnits()) {
+            String packagePrefix =
+                    cu.getPackageDeclaration().isPresent()
+                            ? cu.getPackageDeclaration().get().getNameAsString() + "."
+                            : "";
+            for (TypeDeclaration<?> typeDecl : cu.getTypes()) {
+                verifyTopLevelType(packagePrefix + typeDecl.getNameAsString(), typeDecl);
+            }
+        }
+    }
+
+    /** Reports the totals of all verified stub files. */
+    public void reportSummary() {
+        processingEnv
+                .getMessager()
+                .printMessage(
+                        Diagnostic.Kind.NOTE,
+                        String.format(
+                                "StubVerifier: verified %d declarations in %d stub files:"
+                                        + " %d not found, %d redundant",
+                                declarationCount,
+                                fileCount,
+                                notFoundCount,
+                                redundantCount));
+    }
+
+    /**
+     * Verifies a top-level type declaration and its members.
+     *
+     * @param fqName the fully-qualified name of the type
+     * @param typeDecl the type declaration
+     */
+    private void verifyTopLevelType(String fqName, TypeDeclaration<?> typeDecl) {
+        declarationCount++;
+        TypeElement typeElt = elements.getTypeElement(fqName);
+        if (typeElt == null) {
+            notFound("Type " + fqName + " not found");
+            return;
+        }
+        verifyMembers(typeElt, typeDecl);
+    }
+
+    /**
+     * Verifies the members of a type declaration.
+     *
+     * @param typeElt the element of the type
+     * @param typeDecl the type declaration
+     */
+    private void verifyMembers(TypeElement typeElt, TypeDeclaration<?> typeDecl) {
+        if (typeDecl instanceof EnumDeclaration) {
+            for (EnumConstantDeclaration constant : ((EnumDeclaration) typeDecl).getEntries()) {
+                declarationCount++;
+                String name = constant.getNameAsString();
+                VariableElement field = findField(typeElt, name);
+                if (field == null) {
+                    notFound("Enum constant " + name + " not found in type " + typeElt);
+                } else {
+                    checkRedundant(field, "Enum constant " + name + " in type " + typeElt);
+                }
+            }
+        }
+        for (BodyDeclaration<?> member : typeDecl.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                verifyNestedType(typeElt, (TypeDeclaration<?>) member);
+            } else if (member instanceof MethodDeclaration) {
+                verifyMethod(typeElt, (MethodDeclaration) member);
+            } else if (member instanceof ConstructorDeclaration) {
+                verifyConstructor(typeElt, (ConstructorDeclaration) member);
+            } else if (member instanceof FieldDeclaration) {
+                verifyField(typeElt, (FieldDeclaration) member);
+            }
+        }
+    }
+
+    /**
+     * Verifies a nested type declaration and its members.
+     *
+     * @param typeElt the element of the enclosing type
+     * @param typeDecl the nested type declaration
+     */
+    private void verifyNestedType(TypeElement typeElt, TypeDeclaration<?> typeDecl) {
+        declarationCount++;
+        String name = typeDecl.getNameAsString();
+        for (TypeElement nested : ElementFilter.typesIn(typeElt.getEnclosedElements())) {
+            if (nested.getSimpleName().contentEquals(name)) {
+                verifyMembers(nested, typeDecl);
+                return;
+            }
+        }
+        notFound("Type " + name + " not found in type " + typeElt);
+    }
+
+    /**
+     * Verifies a method declaration, in the same way as {@code StubParser} looks it up.
+     *
+     * @param typeElt the element of the enclosing type
+     * @param methodDecl the method declaration
+     */
+    private void verifyMethod(TypeElement typeElt, MethodDeclaration methodDecl) {
+        if (isJdkAsStub && methodDecl.getModifiers().contains(Modifier.privateModifier())) {
+            // StubParser ignores private methods of the JDK.
+            return;
+        }
+        declarationCount++;
+        String wantedName = methodDecl.getNameAsString();
+        int wantedParams = methodDecl.getParameters().size();
+        String wantedString = StubUtil.toString(methodDecl);
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElt.getEnclosedElements())) {
+            if (wantedParams == method.getParameters().size()
+                    && method.getSimpleName().contentEquals(wantedName)
+                    && ElementUtils.getSimpleName(method).equals(wantedString)) {
+                checkRedundant(method, "Method " + wantedString + " in type " + typeElt);
+                return;
+            }
+        }
+        notFound("Method " + wantedString + " not found in type " + typeElt);
+    }
+
+    /**
+     * Verifies a constructor declaration, in the same way as {@code StubParser} looks it up.
+     *
+     * @param typeElt the element of the enclosing type
+     * @param constructorDecl the constructor declaration
+     */
+    private void verifyConstructor(TypeElement typeElt, ConstructorDeclaration constructorDecl) {
+        if (isJdkAsStub && constructorDecl.getModifiers().contains(Modifier.privateModifier())) {
+            // StubParser ignores private constructors of the JDK.
+            return;
+        }
+        declarationCount++;
+        int wantedParams = constructorDecl.getParameters().size();
+        String wantedString = StubUtil.toString(constructorDecl);
+        for (ExecutableElement constructor :
+                ElementFilter.constructorsIn(typeElt.getEnclosedElements())) {
+            if (wantedParams == constructor.getParameters().size()
+                    && ElementUtils.getSimpleName(constructor).equals(wantedString)) {
+                checkRedundant(
+                        constructor, "Constructor " + wantedString + " in type " + typeElt);
+                return;
+            }
+        }
+        notFound("Constructor " + wantedString + " not found in type " + typeElt);
+    }
+
+    /**
+     * Verifies the variables of a field declaration.
+     *
+     * @param typeElt the element of the enclosing type
+     * @param fieldDecl the field declaration
+     */
+    private void verifyField(TypeElement typeElt, FieldDeclaration fieldDecl) {
+        for (VariableDeclarator var : fieldDecl.getVariables()) {
+            declarationCount++;
+            String name = var.getNameAsString();
+            VariableElement field = findField(typeElt, name);
+            if (field == null) {
+                notFound("Field " + name + " not found in type " + typeElt);
+            } else {
+                checkRedundant(field, "Field " + name + " in type " + typeElt);
+            }
+        }
+    }
+
+    /**
+     * Returns the field of the given type, or of one of its supertypes, that has the given name.
+     *
+     * @param typeElt the type in which to look for the field
+     * @param name the name of the field
+     * @return the field named {@code name}, or null if there is none
+     */
+    private @Nullable VariableElement findField(TypeElement typeElt, String name) {
+        for (VariableElement field : ElementUtils.getAllFieldsIn(typeElt, elements)) {
+            if (field.getSimpleName().contentEquals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reports a declaration that is not found on the classpath.
+     *
+     * @param message the description of the declaration that was not found
+     */
+    private void notFound(String message) {
+        notFoundCount++;
+        warn(message);
+    }
+
+    /**
+     * Records that the given member is declared in the stub file that is currently being verified,
+     * and reports the declaration if the member was already declared in a stub file.
+     *
+     * @param member the element of the declared member
+     * @param description the description of the declaration
+     */
+    private void checkRedundant(Element member, String description) {
+        String previous = declaringFiles.putIfAbsent(member, filename);
+        if (previous != null) {
+            redundantCount++;
+            warn(description + " is also declared in " + previous);
+        }
+    }
+
+    /**
+     * Issues a warning about the stub file that is currently being verified.
+     *
+     * @param message the warning
+     */
+    private void warn(String message) {
+        processingEnv
+                .getMessager()
+                .printMessage(
+                        Diagnostic.Kind.WARNING, "StubVerifier: " + filename + ": " + message);
+    }
+}
@@ -46,6 +46,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.IntersectionType;
@@ -86,6 +87,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedPrimitiv
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeCombiner;
+import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeScanner;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AnnotationFormatter;
 import org.checkerframework.framework.util.CFContext;
@@ -373,6 +375,14 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     /** Mapping from an Element to the source Tree of the declaration. */
     private final Map<Element, Tree> elementToTreeCache;
 
+    /**
+     * Mapping from the element of a type parameter to a type variable whose bounds have been
+     * initialized by {@link BoundsInitializer}, without annotations. The type variables in this map
+     * are never modified or returned; {@link BoundsInitializer#initializeBounds} copies their
+     * bounds.
+     */
+    final Map<TypeParameterElement, AnnotatedTypeVariable> typeVariableBoundsCache;
+
     /** Mapping from a Tree to its TreePath. Shared between all instances. */
     private final TreePathCacher treePathCache;
 
@@ -385,6 +395,26 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     public final boolean ignoreUninferredTypeArguments;
 
+    /**
+     * The number of times that a type created by this factory that has contributed to a
+     * fingerprint has been modified in a way that might change the fingerprint. A type caches its
+     * fingerprint until this number changes; see {@link AnnotatedTypeMirror#getFingerprint}.
+     */
+    long typeModificationCount = 0;
+
+    /**
+     * The implementation of {@link AnnotatedTypeMirror#containsUninferredTypeArguments()}. It is
+     * shared by all types created by this factory, so that creating a type does not create a
+     * scanner.
+     */
+    final SimpleAnnotatedTypeScanner<Boolean, Void> uninferredTypeArgumentScanner =
+            new SimpleAnnotatedTypeScanner<>(
+                    (type, p) ->
+                            type.getKind() == TypeKind.WILDCARD
+                                    && ((AnnotatedWildcardType) type).isUninferredTypeArgument(),
+                    Boolean::logicalOr,
+                    false);
+
     /** The Object.getClass method. */
     protected final ExecutableElement objectGetClass;
 
@@ -436,6 +466,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromTypeTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
+            this.typeVariableBoundsCache = CollectionUtils.createLRUCache(cacheSize);
             this.annotationClassNames =
                     Collections.synchronizedMap(
                             CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE));
@@ -446,6 +477,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromTypeTreeCache = null;
             this.elementCache = null;
             this.elementToTreeCache = null;
+            this.typeVariableBoundsCache = null;
             this.annotationClassNames = null;
         }
 
@@ -648,6 +680,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             // There is no need to clear the following cache, it is limited by cache size and it
             // contents won't change between compilation units.
             // elementCache.clear();
+            // typeVariableBoundsCache.clear();
         }
     }
 
@@ -0,0 +1,211 @@
+package org.checkerframework.framework.type;
+
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import org.checkerframework.checker.interning.qual.FindDistinct;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedIntersectionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedUnionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
+import org.checkerframework.javacutil.AnnotationUtils;
+
+/**
+ * Computes the 64-bit structural fingerprint of an {@link AnnotatedTypeMirror}, which {@link
+ * AnnotatedTypeMirror#hashCode} returns and {@link AnnotatedTypeMirror#equals} uses to reject
+ * unequal types without comparing them.
+ *
+ * <p>Types that {@link EqualityAtmComparer} considers equal have the same fingerprint. Therefore,
+ * the fingerprint only depends on information that the comparer compares, and only on the parts
+ * of a type that the comparer visits in both types:
+ *
+ * <ul>
+ *   <li>For each component type, the kind and the element of the underlying type, and the names
+ *       of the primary annotations. These are the same for equal underlying types and for
+ *       annotations that are the same according to {@link AnnotationUtils#areSame}.
+ *   <li>The type arguments of a declared type, but only if the underlying type is parameterized:
+ *       two raw types may have different numbers of type arguments, of which the comparer only
+ *       compares the common prefix. Likewise for the bounds of an intersection type and the
+ *       alternatives of a union type.
+ *   <li>The bounds of type variables and wildcards, but not the bounds of type variables and
+ *       wildcards within those bounds. Recursive types can only be cyclic through bounds, so the
+ *       fingerprint is computed without tracking which types have been visited, which would make
+ *       it depend on how a recursive type is represented.
+ * </ul>
+ *
+ * The parameter, return, and other types of an executable type are not part of its fingerprint.
+ */
+final class AnnotatedTypeFingerprint {
+
+    /** The initial value of a fingerprint. */
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** The multiplier that mixes a value into a fingerprint. */
+    private static final long PRIME = 0x100000001b3L;
+
+    /** Marks a missing component type, such as an absent bound. */
+    private static final long MISSING = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The maximum depth of the component types that are part of the fingerprint. Types are not
+     * nested this deeply in practice; the limit merely guarantees termination if a type is cyclic
+     * in an unexpected way.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /** The factory of the type whose fingerprint is being computed. */
+    private final AnnotatedTypeFactory atypeFactory;
+
+    /** The fingerprint computed so far. */
+    private long value = OFFSET_BASIS;
+
+    /**
+     * Whether all component types that contributed to the fingerprint were created by {@link
+     * #atypeFactory}. Only then does {@link AnnotatedTypeFactory#typeModificationCount} reflect
+     * every modification that could change the fingerprint, so that it may be cached. Every
+     * component type is marked as {@link AnnotatedTypeMirror#fingerprinted}, so that modifying it
+     * changes the modification count.
+     */
+    private boolean cacheable = true;
+
+    /**
+     * Computes the fingerprint of the given type.
+     *
+     * @param type a type
+     */
+    AnnotatedTypeFingerprint(AnnotatedTypeMirror type) {
+        this.atypeFactory = type.atypeFactory;
+        add(type, false, 0);
+    }
+
+    /**
+     * Returns the fingerprint.
+     *
+     * @return the fingerprint
+     */
+    long getValue() {
+        return value;
+    }
+
+    /**
+     * Returns true if the fingerprint may be cached until a type of the factory is modified.
+     *
+     * @return true if the fingerprint may be cached
+     */
+    boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * Mixes a value into the fingerprint.
+     *
+     * @param v the value
+     */
+    private void mix(long v) {
+        value = (value ^ v) * PRIME;
+    }
+
+    /**
+     * Mixes the given type and its component types into the fingerprint.
+     *
+     * @param type a type, or null for a missing component type
+     * @param inBound true if {@code type} is a bound of a type variable or wildcard, or a component
+     *     type of such a bound
+     * @param depth the depth of {@code type} within the type whose fingerprint is computed
+     */
+    private void add(@Nullable AnnotatedTypeMirror type, boolean inBound, int depth) {
+        if (type == null) {
+            mix(MISSING);
+            return;
+        }
+        if (depth > MAX_DEPTH) {
+            return;
+        }
+        type.fingerprinted = true;
+        if (!isFromFactory(type)) {
+            cacheable = false;
+        }
+        TypeMirror underlying = type.getUnderlyingType();
+        mix(underlying.getKind().ordinal());
+        int annotationsHash = 0;
+        for (AnnotationMirror anno : type.annotations) {
+            annotationsHash += AnnotationUtils.annotationName(anno).hashCode();
+        }
+        mix(annotationsHash);
+
+        switch (type.getKind()) {
+            case DECLARED:
+                mix(((DeclaredType) underlying).asElement().getSimpleName().hashCode());
+                if (!((DeclaredType) underlying).getTypeArguments().isEmpty()) {
+                    addAll(((AnnotatedDeclaredType) type).getTypeArguments(), inBound, depth);
+                }
+                break;
+            case ARRAY:
+                add(((AnnotatedArrayType) type).getComponentType(), inBound, depth + 1);
+                break;
+            case TYPEVAR:
+                mix(((TypeVariable) underlying).asElement().getSimpleName().hashCode());
+                if (!inBound) {
+                    AnnotatedTypeVariable typeVar = (AnnotatedTypeVariable) type;
+                    add(typeVar.getUpperBound(), true, depth + 1);
+                    add(typeVar.getLowerBound(), true, depth + 1);
+                }
+                break;
+            case WILDCARD:
+                if (!inBound) {
+                    AnnotatedWildcardType wildcard = (AnnotatedWildcardType) type;
+                    add(wildcard.getExtendsBound(), true, depth + 1);
+                    add(wildcard.getSuperBound(), true, depth + 1);
+                }
+                break;
+            case INTERSECTION:
+                addAll(((AnnotatedIntersectionType) type).directSuperTypes(), inBound, depth);
+                break;
+            case UNION:
+                addAll(((AnnotatedUnionType) type).getAlternatives(), inBound, depth);
+                break;
+            default:
+                // Primitive, null, and no types have no component types, and the component types
+                // of executable types are not part of the fingerprint.
+                break;
+        }
+    }
+
+    /**
+     * Returns true if the given type was created by {@link #atypeFactory}.
+     *
+     * @param type a component type
+     * @return true if {@code type} was created by {@link #atypeFactory}
+     */
+    private boolean isFromFactory(AnnotatedTypeMirror type) {
+        return sameFactory(type.atypeFactory);
+    }
+
+    /**
+     * Returns true if the given factory is {@link #atypeFactory}.
+     *
+     * @param factory a factory
+     * @return true if {@code factory} is {@link #atypeFactory}
+     */
+    private boolean sameFactory(@FindDistinct AnnotatedTypeFactory factory) {
+        return factory == atypeFactory;
+    }
+
+    /**
+     * Mixes the given component types into the fingerprint.
+     *
+     * @param types the component types
+     * @param inBound true if the types are within a bound of a type variable or wildcard
+     * @param depth the depth of the type whose component types {@code types} are
+     */
+    private void addAll(List<? extends AnnotatedTypeMirror> types, boolean inBound, int depth) {
+        for (AnnotatedTypeMirror t : types) {
+            add(t, inBound, depth + 1);
+        }
+    }
+}
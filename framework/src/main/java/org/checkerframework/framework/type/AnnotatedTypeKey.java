@@ -0,0 +1,127 @@
+package org.checkerframework.framework.type;
+
+import org.checkerframework.checker.interning.qual.FindDistinct;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
+
+/**
+ * THIS CLASS IS DESIGNED FOR USE WITH DefaultTypeHierarchy and SubtypeVisitHistory ONLY.
+ *
+ * <p>A type that stands for itself in a map of results about the type. The hash code of a key is
+ * the cached {@link AnnotatedTypeMirror#getFingerprint fingerprint} of the type, so hashing a key
+ * does not traverse the type. Two keys are equal if their types are equal according to {@link
+ * AnnotatedTypeMirror#equals}, have the same factory, and have the same flags that affect
+ * subtyping: {@link AnnotatedTypeMirror#isDeclaration}, {@link AnnotatedDeclaredType#wasRaw}, and
+ * {@link AnnotatedWildcardType#isUninferredTypeArgument}. Their types are only compared if their
+ * fingerprints are equal, which usually means that the keys are equal.
+ */
+final class AnnotatedTypeKey {
+
+    /** Compares the types of two keys. */
+    private static final KeyComparer COMPARER = new KeyComparer();
+
+    /** The type. */
+    private final AnnotatedTypeMirror type;
+
+    /** The fingerprint of {@link #type}, at the time that the key was created. */
+    private final long fingerprint;
+
+    /**
+     * Creates a new AnnotatedTypeKey.
+     *
+     * @param type the type
+     * @param fingerprint the fingerprint of {@code type}
+     */
+    private AnnotatedTypeKey(AnnotatedTypeMirror type, long fingerprint) {
+        this.type = type;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the key of the given type. The key is only valid as long as the type is not
+     * modified, so it should only be used to look up results.
+     *
+     * @param type a type
+     * @return the key of {@code type}
+     */
+    static AnnotatedTypeKey of(AnnotatedTypeMirror type) {
+        return new AnnotatedTypeKey(type, type.getFingerprint());
+    }
+
+    /**
+     * Returns the key of a copy of the given type, which does not change when the type is modified.
+     *
+     * @param type a type
+     * @return the key of a copy of {@code type}
+     */
+    static AnnotatedTypeKey snapshotOf(AnnotatedTypeMirror type) {
+        return new AnnotatedTypeKey(type.deepCopy(), type.getFingerprint());
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnnotatedTypeKey)) {
+            return false;
+        }
+        AnnotatedTypeKey other = (AnnotatedTypeKey) o;
+        return fingerprint == other.fingerprint
+                && sameFactory(other.type.atypeFactory)
+                && COMPARER.visit(type, other.type, null);
+    }
+
+    /**
+     * Returns true if the given factory is the factory of {@link #type}. The factory determines
+     * some of the behavior of a type, such as its supertypes.
+     *
+     * @param factory a factory
+     * @return true if {@code factory} is the factory of {@link #type}
+     */
+    private boolean sameFactory(@FindDistinct AnnotatedTypeFactory factory) {
+        return factory == type.atypeFactory;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotatedTypeKey(" + type + ")";
+    }
+
+    /**
+     * Compares types like {@link EqualityAtmComparer}, and additionally compares the flags of each
+     * component type that affect subtyping.
+     */
+    private static final class KeyComparer extends EqualityAtmComparer {
+
+        @Override
+        protected boolean compare(AnnotatedTypeMirror type1, AnnotatedTypeMirror type2) {
+            if (!super.compare(type1, type2)) {
+                return false;
+            }
+            if (type1 == null || type2 == null) {
+                // Both are null.
+                return true;
+            }
+            if (type1.isDeclaration() != type2.isDeclaration()) {
+                return false;
+            }
+            switch (type1.getKind()) {
+                case DECLARED:
+                    return ((AnnotatedDeclaredType) type1).wasRaw()
+                            == ((AnnotatedDeclaredType) type2).wasRaw();
+                case WILDCARD:
+                    return ((AnnotatedWildcardType) type1).isUninferredTypeArgument()
+                            == ((AnnotatedWildcardType) type2).isUninferredTypeArgument();
+                default:
+                    return true;
+            }
+        }
+    }
+}
@@ -31,7 +31,6 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.dataflow.qual.SideEffectFree;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeVisitor;
-import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeScanner;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
@@ -122,7 +121,6 @@ public abstract class AnnotatedTypeMirror {
     }
 
     protected static final EqualityAtmComparer EQUALITY_COMPARER = new EqualityAtmComparer();
-    protected static final HashcodeAtmVisitor HASHCODE_VISITOR = new HashcodeAtmVisitor();
 
     /** The factory to use for lazily creating annotated types. */
     protected final AnnotatedTypeFactory atypeFactory;
@@ -155,6 +153,25 @@ public abstract class AnnotatedTypeMirror {
         this.atypeFactory = atypeFactory;
     }
 
+    /**
+     * The cached structural fingerprint of this type; see {@link #getFingerprint}. Only valid if
+     * {@link #fingerprintModificationCount} is equal to the {@link
+     * AnnotatedTypeFactory#typeModificationCount} of {@link #atypeFactory}.
+     */
+    private long fingerprint;
+
+    /**
+     * The value of {@link AnnotatedTypeFactory#typeModificationCount} when {@link #fingerprint} was
+     * computed, or -1 if it has not been computed.
+     */
+    private long fingerprintModificationCount = -1;
+
+    /**
+     * True if this type has contributed to a fingerprint, which might be cached. Only modifications
+     * of such types invalidate cached fingerprints; see {@link #typeModified}.
+     */
+    boolean fingerprinted = false;
+
     @Override
     public final boolean equals(Object o) {
         if (o == this) {
@@ -165,13 +182,57 @@ public abstract class AnnotatedTypeMirror {
             return false;
         }
 
-        return EQUALITY_COMPARER.visit(this, (AnnotatedTypeMirror) o, null);
+        AnnotatedTypeMirror other = (AnnotatedTypeMirror) o;
+        if (getFingerprint() != other.getFingerprint()) {
+            // Equal types have equal fingerprints.
+            return false;
+        }
+        return EQUALITY_COMPARER.visit(this, other, null);
     }
 
     @Pure
     @Override
     public final int hashCode() {
-        return HASHCODE_VISITOR.visit(this);
+        return Long.hashCode(getFingerprint());
+    }
+
+    /**
+     * Returns the 64-bit structural fingerprint of this type. Types that are equal according to
+     * {@link #equals} have the same fingerprint. See {@link AnnotatedTypeFingerprint} for what the
+     * fingerprint consists of.
+     *
+     * <p>Computing the fingerprint traverses the type, so it is cached until a type created by the
+     * same factory that has contributed to some fingerprint is modified. Types are usually modified
+     * while they are created, before their fingerprint is computed, and such modifications do not
+     * invalidate any cached fingerprint. This is much simpler than tracking which types contain a
+     * modified type.
+     *
+     * @return the structural fingerprint of this type
+     */
+    final long getFingerprint() {
+        long modificationCount = atypeFactory.typeModificationCount;
+        if (fingerprintModificationCount == modificationCount) {
+            return fingerprint;
+        }
+        AnnotatedTypeFingerprint result = new AnnotatedTypeFingerprint(this);
+        // Computing the fingerprint might initialize component types lazily, which counts as a
+        // modification.
+        if (result.isCacheable() && modificationCount == atypeFactory.typeModificationCount) {
+            fingerprint = result.getValue();
+            fingerprintModificationCount = modificationCount;
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Records that this type has been modified in a way that might change its fingerprint, or the
+     * fingerprint of a type that contains it. If this type has contributed to a fingerprint,
+     * invalidates all cached fingerprints of types created by the same factory.
+     */
+    final void typeModified() {
+        if (fingerprinted) {
+            atypeFactory.typeModificationCount++;
+        }
     }
 
     /**
@@ -523,7 +584,9 @@ public abstract class AnnotatedTypeMirror {
             throw new BugInCF("AnnotatedTypeMirror.addAnnotation: null argument.");
         }
         if (atypeFactory.isSupportedQualifier(a)) {
-            this.annotations.add(a);
+            if (this.annotations.add(a)) {
+                typeModified();
+            }
         } else {
             AnnotationMirror aliased = atypeFactory.canonicalAnnotation(a);
             if (atypeFactory.isSupportedQualifier(aliased)) {
@@ -606,6 +669,7 @@ public abstract class AnnotatedTypeMirror {
         AnnotationMirror anno =
                 AnnotationUtils.getAnnotationByName(annotations, AnnotationUtils.annotationName(a));
         if (anno != null) {
+            typeModified();
             return annotations.remove(anno);
         } else {
             return false;
@@ -681,7 +745,10 @@ public abstract class AnnotatedTypeMirror {
      * methods.
      */
     public void clearAnnotations() {
-        annotations.clear();
+        if (!annotations.isEmpty()) {
+            typeModified();
+            annotations.clear();
+        }
     }
 
     @SideEffectFree
@@ -767,18 +834,9 @@ public abstract class AnnotatedTypeMirror {
      *     inference is insufficient
      */
     public boolean containsUninferredTypeArguments() {
-        return uninferredTypeArgumentScanner.visit(this);
+        return atypeFactory.uninferredTypeArgumentScanner.visit(this);
     }
 
-    /** The implementation of the visitor for #containsUninferredTypeArguments. */
-    private final SimpleAnnotatedTypeScanner<Boolean, Void> uninferredTypeArgumentScanner =
-            new SimpleAnnotatedTypeScanner<>(
-                    (type, p) ->
-                            type.getKind() == TypeKind.WILDCARD
-                                    && ((AnnotatedWildcardType) type).isUninferredTypeArgument(),
-                    Boolean::logicalOr,
-                    false);
-
     /**
      * Create an {@link AnnotatedDeclaredType} with the underlying type of {@link Object}. It
      * includes any annotations placed by {@link AnnotatedTypeFactory#fromElement(Element)}.
@@ -884,6 +942,7 @@ public abstract class AnnotatedTypeMirror {
          */
         // WMD
         public void setTypeArguments(List<? extends AnnotatedTypeMirror> ts) {
+            typeModified();
             if (ts == null || ts.isEmpty()) {
                 typeArgs = Collections.emptyList();
             } else {
@@ -1330,6 +1389,7 @@ public abstract class AnnotatedTypeMirror {
          */
         // WMD
         public void setComponentType(AnnotatedTypeMirror type) {
+            typeModified();
             this.componentType = type;
         }
 
@@ -1477,6 +1537,7 @@ public abstract class AnnotatedTypeMirror {
          */
         void setLowerBound(AnnotatedTypeMirror type) {
             checkBound("Lower", type, this);
+            typeModified();
             this.lowerBound = type;
             fixupBoundAnnotations();
         }
@@ -1565,6 +1626,7 @@ public abstract class AnnotatedTypeMirror {
          */
         void setUpperBound(AnnotatedTypeMirror type) {
             checkBound("Upper", type, this);
+            typeModified();
             this.upperBound = type;
             fixupBoundAnnotations();
         }
@@ -1846,6 +1908,7 @@ public abstract class AnnotatedTypeMirror {
          */
         void setSuperBound(AnnotatedTypeMirror type) {
             checkBound("Super", type, this);
+            typeModified();
             this.superBound = type;
             fixupBoundAnnotations();
         }
@@ -1875,6 +1938,7 @@ public abstract class AnnotatedTypeMirror {
          */
         void setExtendsBound(AnnotatedTypeMirror type) {
             checkBound("Extends", type, this);
+            typeModified();
             this.extendsBound = type;
             fixupBoundAnnotations();
         }
@@ -2084,6 +2148,7 @@ public abstract class AnnotatedTypeMirror {
         }
 
         void setDirectSuperTypes(List<AnnotatedDeclaredType> supertypes) {
+            typeModified();
             this.supertypes = new ArrayList<>(supertypes);
         }
     }
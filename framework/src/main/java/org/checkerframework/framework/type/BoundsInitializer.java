@@ -11,6 +11,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.DeclaredType;
@@ -20,6 +22,7 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 import javax.lang.model.type.WildcardType;
 import org.checkerframework.checker.interning.qual.FindDistinct;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
@@ -42,6 +45,12 @@ import org.plumelib.util.UtilPlume;
  * variables and wildcards. Its static helper methods are called from AnnotatedTypeMirror. When an
  * initializer method is called for a particular bound, the entirety of that bound, including
  * circular references, will be created.
+ *
+ * <p>The bounds of a type variable only depend on its type parameter, unless the type variable is
+ * captured or its underlying type is annotated. For the other type variables, such as the type
+ * variables of the generic classes and methods of the JDK, the bounds are initialized once per
+ * type parameter, and later type variables get copies. See {@link
+ * AnnotatedTypeFactory#typeVariableBoundsCache}.
  */
 public class BoundsInitializer {
     // ============================================================================================
@@ -154,7 +163,69 @@ public class BoundsInitializer {
      * @param typeVar the type variable whose lower bound is being initialized
      */
     public static void initializeBounds(final AnnotatedTypeVariable typeVar) {
-        initializeBounds(typeVar, null);
+        Map<TypeParameterElement, AnnotatedTypeVariable> cache =
+                typeVar.atypeFactory.typeVariableBoundsCache;
+        TypeParameterElement typeParameter = cache == null ? null : getTypeParameter(typeVar);
+        if (typeParameter == null) {
+            initializeBounds(typeVar, null);
+            return;
+        }
+
+        AnnotatedTypeVariable template = cache.get(typeParameter);
+        if (template == null) {
+            template =
+                    (AnnotatedTypeVariable)
+                            AnnotatedTypeMirror.createType(
+                                    typeVar.getUnderlyingType(), typeVar.atypeFactory, false);
+            initializeBounds(template, null);
+            cache.put(typeParameter, template);
+        }
+
+        // The copy of a recursive reference to the type variable within its bounds is a reference
+        // to the copy of the template rather than to typeVar.  This is the same as when the bounds
+        // are initialized directly, where recursive references are also copies of the type
+        // variable.
+        final Set<AnnotationMirror> annos = saveAnnotations(typeVar);
+        AnnotatedTypeVariable copy = template.deepCopy();
+        typeVar.setLowerBound(copy.getLowerBoundField());
+        typeVar.setUpperBound(copy.getUpperBoundField());
+        restoreAnnotations(typeVar, annos);
+    }
+
+    /**
+     * Returns the type parameter of {@code typeVar} if the bounds of {@code typeVar} may be copied
+     * from those of another type variable of the same type parameter. That is the case if the
+     * underlying type of {@code typeVar} is the type of the declaration of the type parameter, so
+     * that the bounds only depend on the type parameter.
+     *
+     * @param typeVar a type variable whose bounds are being initialized
+     * @return the type parameter of {@code typeVar}, or null if its bounds must be initialized
+     *     directly
+     */
+    private static @Nullable TypeParameterElement getTypeParameter(AnnotatedTypeVariable typeVar) {
+        TypeVariable underlyingType = typeVar.getUnderlyingType();
+        if (TypesUtils.isCaptured(underlyingType)) {
+            return null;
+        }
+        Element element = underlyingType.asElement();
+        if (element == null
+                || element.getKind() != ElementKind.TYPE_PARAMETER
+                || !isDeclaredType(element, underlyingType)) {
+            return null;
+        }
+        return (TypeParameterElement) element;
+    }
+
+    /**
+     * Returns true if {@code type} is the very type of the declaration of {@code element}, rather
+     * than an equal type such as an annotated copy of it.
+     *
+     * @param element an element
+     * @param type a type of {@code element}
+     * @return true if {@code type} is the type of the declaration of {@code element}
+     */
+    private static boolean isDeclaredType(Element element, @FindDistinct TypeMirror type) {
+        return element.asType() == type;
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.checkerframework.framework.type;
 
 import java.util.List;
+import java.util.Map;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
@@ -24,6 +25,8 @@ import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AtmCombo;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
+import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TypesUtils;
 
 /**
@@ -115,6 +118,17 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
     /** Stores the result of isSubtype, if that result is true. */
     protected final SubtypeVisitHistory visitHistory;
 
+    /** The maximum number of results in {@link #subtypeMemo}. */
+    private static final int SUBTYPE_MEMO_SIZE = 1000;
+
+    /**
+     * Memoizes the result of {@link #isSubtype(AnnotatedTypeMirror, AnnotatedTypeMirror)}, both
+     * true and false, for the most recently checked pairs of types. Type-checking asks the same
+     * question about the same types repeatedly, for example in every assignment of a generic type
+     * in a method. Null if the -AatfDoNotCache command-line option was passed.
+     */
+    private final @Nullable Map<Pair<AnnotatedTypeKey, AnnotatedTypeKey>, Boolean> subtypeMemo;
+
     /**
      * Stores the result of isSubtype for type arguments. Prevents infinite recursion on types that
      * refer to themselves. (Stores both true and false results.)
@@ -130,6 +144,10 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
         this.checker = checker;
         this.qualifierHierarchy = qualifierHierarchy;
         this.visitHistory = new SubtypeVisitHistory();
+        this.subtypeMemo =
+                checker.hasOption("atfDoNotCache")
+                        ? null
+                        : CollectionUtils.createLRUCache(SUBTYPE_MEMO_SIZE);
         this.typeargVisitHistory = new StructuralEqualityVisitHistory();
         this.equalityComparer = createEqualityComparer();
 
@@ -150,6 +168,8 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
      * should not override this method, but instead override {@link #isSubtype(AnnotatedTypeMirror,
      * AnnotatedTypeMirror, AnnotationMirror)} or some of the {@code visitXXX} methods.
      *
+     * <p>The result is memoized for the most recently checked pairs of types.
+     *
      * @param subtype expected subtype
      * @param supertype expected supertype
      * @return true if subtype is a subtype of supertype or equal to it
@@ -157,6 +177,35 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
     @Override
     public boolean isSubtype(
             final AnnotatedTypeMirror subtype, final AnnotatedTypeMirror supertype) {
+        if (subtypeMemo == null) {
+            return isSubtypeInAllHierarchies(subtype, supertype);
+        }
+        Pair<AnnotatedTypeKey, AnnotatedTypeKey> key =
+                Pair.of(AnnotatedTypeKey.of(subtype), AnnotatedTypeKey.of(supertype));
+        Boolean result = subtypeMemo.get(key);
+        if (result == null) {
+            // Store copies of the types, made before the check, which might modify the types, for
+            // example by initializing their type arguments.
+            key =
+                    Pair.of(
+                            AnnotatedTypeKey.snapshotOf(subtype),
+                            AnnotatedTypeKey.snapshotOf(supertype));
+            result = isSubtypeInAllHierarchies(subtype, supertype);
+            subtypeMemo.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if subtype {@literal <:} supertype in every qualifier hierarchy, without
+     * consulting the memoized results.
+     *
+     * @param subtype expected subtype
+     * @param supertype expected supertype
+     * @return true if subtype is a subtype of supertype or equal to it
+     */
+    private boolean isSubtypeInAllHierarchies(
+            final AnnotatedTypeMirror subtype, final AnnotatedTypeMirror supertype) {
         for (final AnnotationMirror top : qualifierHierarchy.getTopAnnotations()) {
             if (!isSubtype(subtype, supertype, top)) {
                 return false;
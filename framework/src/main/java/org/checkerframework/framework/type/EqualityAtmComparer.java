@@ -9,15 +9,16 @@ import org.plumelib.util.UtilPlume;
  * Compares two annotated type mirrors for structural equality using only the primary annotations
  * and underlying types of the two input types and their component types. Note, this leaves out
  * other fields specific to some AnnotatedTypeMirrors (like directSuperTypes, wasRaw,
- * isUninferredTypeArgument etc...). Ideally, both EqualityAtmComparer and HashcodeAtmVisitor would
- * visit relevant fields.
+ * isUninferredTypeArgument etc...). Ideally, both EqualityAtmComparer and AnnotatedTypeFingerprint
+ * would visit relevant fields.
  *
- * <p>This class is used by AnnotatedTypeMirror#equals
+ * <p>This class is used by AnnotatedTypeMirror#equals, after the fingerprints of the two types have
+ * been found to be equal.
  *
- * <p>This class should be kept synchronized with HashcodeAtmVisitor.
+ * <p>This class should be kept synchronized with AnnotatedTypeFingerprint: types that this class
+ * considers equal must have the same fingerprint.
  *
- * @see org.checkerframework.framework.type.HashcodeAtmVisitor
- *     <p>Unlike HashcodeAtmVisitor this class is intended to be overridden.
+ * @see org.checkerframework.framework.type.AnnotatedTypeFingerprint
  */
 public class EqualityAtmComparer extends EquivalentAtmComboScanner<Boolean, Void> {
 
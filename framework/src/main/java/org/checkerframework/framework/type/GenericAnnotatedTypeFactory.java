@@ -15,6 +15,7 @@ import com.sun.source.tree.Tree.Kind;
 import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import java.lang.annotation.Annotation;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -22,6 +23,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -30,6 +32,7 @@ import java.util.StringJoiner;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -45,6 +48,7 @@ import org.checkerframework.dataflow.analysis.FlowExpressions.LocalVariable;
 import org.checkerframework.dataflow.analysis.FlowExpressions.Receiver;
 import org.checkerframework.dataflow.analysis.TransferInput;
 import org.checkerframework.dataflow.analysis.TransferResult;
+import org.checkerframework.dataflow.cfg.CFGFingerprint;
 import org.checkerframework.dataflow.cfg.CFGVisualizer;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.DOTCFGVisualizer;
@@ -73,6 +77,7 @@ import org.checkerframework.framework.qual.MonotonicQualifier;
 import org.checkerframework.framework.qual.QualifierForLiterals;
 import org.checkerframework.framework.qual.RelevantJavaTypes;
 import org.checkerframework.framework.qual.TypeUseLocation;
+import org.checkerframework.framework.source.MethodSummaryCache;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.framework.type.poly.DefaultQualifierPolymorphism;
@@ -125,12 +130,24 @@ public abstract class GenericAnnotatedTypeFactory<
     /** to annotate types based on the given tree */
     protected TypeAnnotator typeAnnotator;
 
+    /**
+     * The {@link IrrelevantTypeAnnotator} that is the first annotator run by {@link
+     * #typeAnnotator}, or null if there is none. Used by {@link #annotateIfIrrelevantLeafType}.
+     */
+    private @Nullable IrrelevantTypeAnnotator irrelevantTypeAnnotator;
+
     /** for use in addAnnotationsFromDefaultForType */
     private DefaultQualifierForUseTypeAnnotator defaultQualifierForUseTypeAnnotator;
 
     /** for use in addAnnotationsFromDefaultForType */
     private DefaultForTypeAnnotator defaultForTypeAnnotator;
 
+    /**
+     * Applies {@link #defaultQualifierForUseTypeAnnotator} and then {@link
+     * #defaultForTypeAnnotator}, in a single traversal when both are node-local.
+     */
+    private TypeAnnotator defaultsForTypeAnnotator;
+
     /** to annotate types based on the given un-annotated types */
     protected TreeAnnotator treeAnnotator;
 
@@ -221,6 +238,29 @@ public abstract class GenericAnnotatedTypeFactory<
                     IdentityHashMap<Node, TransferResult<Value, Store>>>
             flowResultAnalysisCaches;
 
+    /**
+     * The keys of the methods in the current compilation unit, as computed by {@link
+     * #getMethodSummaryKey}. A null value means that the method is not eligible for the method
+     * summary cache.
+     */
+    private final IdentityHashMap<MethodTree, @Nullable String> methodSummaryKeys =
+            new IdentityHashMap<>();
+
+    /**
+     * The methods of the current compilation unit whose flow analysis has been deferred until
+     * their results are first needed.
+     *
+     * @see #ensureMethodAnalyzed(MethodTree)
+     */
+    private final IdentityHashMap<MethodTree, DeferredMethod> deferredMethods =
+            new IdentityHashMap<>();
+
+    /**
+     * Maps each tree within a method in {@link #deferredMethods} to the innermost such method, so
+     * that a query for the flow results of the tree can trigger the analysis of the method.
+     */
+    private final IdentityHashMap<Tree, MethodTree> deferredMethodTrees = new IdentityHashMap<>();
+
     /**
      * Creates a type factory for checking the given compilation unit with respect to the given
      * annotation.
@@ -269,8 +309,11 @@ public abstract class GenericAnnotatedTypeFactory<
         this.defaults = createAndInitQualifierDefaults();
         this.treeAnnotator = createTreeAnnotator();
         this.typeAnnotator = createTypeAnnotator();
+        this.irrelevantTypeAnnotator = findIrrelevantTypeAnnotator(typeAnnotator);
         this.defaultQualifierForUseTypeAnnotator = createDefaultForUseTypeAnnotator();
         this.defaultForTypeAnnotator = createDefaultForTypeAnnotator();
+        this.defaultsForTypeAnnotator =
+                new ListTypeAnnotator(defaultQualifierForUseTypeAnnotator, defaultForTypeAnnotator);
 
         this.poly = createQualifierPolymorphism();
 
@@ -307,6 +350,24 @@ public abstract class GenericAnnotatedTypeFactory<
     @Override
     public void setRoot(@Nullable CompilationUnitTree root) {
         super.setRoot(root);
+        releaseFlowResults();
+
+        if (shouldCache) {
+            this.initializerCache.clear();
+            this.defaultQualifierForUseTypeAnnotator.clearCache();
+        }
+    }
+
+    /**
+     * Discards the results of dataflow analysis for the current compilation unit. A class whose
+     * results were discarded is analyzed again if it is type-checked again. The other caches of
+     * this factory are kept until {@link #setRoot} is called.
+     *
+     * <p>{@link BaseTypeChecker} calls this once all checkers have type-checked a top-level class,
+     * so that the node values, tree lookup tables, and stores of a class do not stay reachable
+     * until the next compilation unit is processed.
+     */
+    public void releaseFlowResults() {
         this.scannedClasses.clear();
         this.flowResult = null;
         this.regularExitStores = null;
@@ -315,11 +376,12 @@ public abstract class GenericAnnotatedTypeFactory<
         this.returnStatementStores = null;
         this.initializationStore = null;
         this.initializationStaticStore = null;
+        this.methodSummaryKeys.clear();
+        this.deferredMethods.clear();
+        this.deferredMethodTrees.clear();
 
         if (shouldCache) {
             this.flowResultAnalysisCaches.clear();
-            this.initializerCache.clear();
-            this.defaultQualifierForUseTypeAnnotator.clearCache();
         }
     }
 
@@ -407,6 +469,80 @@ public abstract class GenericAnnotatedTypeFactory<
         return new ListTypeAnnotator(typeAnnotators);
     }
 
+    /**
+     * Returns the {@link IrrelevantTypeAnnotator} that the given type annotator runs before any
+     * other type annotator, or null if there is none.
+     *
+     * @param typeAnnotator a type annotator
+     * @return the IrrelevantTypeAnnotator that {@code typeAnnotator} runs first, or null
+     */
+    private static @Nullable IrrelevantTypeAnnotator findIrrelevantTypeAnnotator(
+            TypeAnnotator typeAnnotator) {
+        if (typeAnnotator instanceof ListTypeAnnotator) {
+            List<TypeAnnotator> annotators = ((ListTypeAnnotator) typeAnnotator).getAnnotators();
+            if (annotators.isEmpty()) {
+                return null;
+            }
+            typeAnnotator = annotators.get(0);
+        }
+        if (typeAnnotator instanceof IrrelevantTypeAnnotator) {
+            return (IrrelevantTypeAnnotator) typeAnnotator;
+        }
+        return null;
+    }
+
+    /**
+     * If {@code type} is an unannotated type that is not relevant to this checker (see {@link
+     * RelevantJavaTypes}) and contains no other types, adds the annotations for irrelevant types to
+     * it and returns true. Otherwise, returns false without changing {@code type}.
+     *
+     * <p>This is called after the tree annotator and the {@code DefaultFor} defaults have run,
+     * which may annotate irrelevant types (the Regex Checker annotates char literals, for
+     * example). A type that is still unannotated at that point only gets the annotations that
+     * {@link IrrelevantTypeAnnotator} adds, so running the remaining type annotators and defaulting
+     * on it is wasted work; most types in a program are irrelevant to checkers such as the
+     * Optional Checker. Dataflow still refines the type.
+     *
+     * @param type a type whose annotations are being computed
+     * @return true if {@code type} was annotated as an irrelevant type
+     */
+    private boolean annotateIfIrrelevantLeafType(AnnotatedTypeMirror type) {
+        if (irrelevantTypeAnnotator == null || !type.getAnnotations().isEmpty()) {
+            return false;
+        }
+        TypeMirror underlying = type.getUnderlyingType();
+        switch (underlying.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                break;
+            case DECLARED:
+                DeclaredType declaredType = (DeclaredType) underlying;
+                // A type that has type arguments or an enclosing type contains other types that
+                // might be relevant. Raw types are given type arguments.
+                if (!declaredType.getTypeArguments().isEmpty()
+                        || declaredType.getEnclosingType().getKind() != TypeKind.NONE
+                        || !((TypeElement) declaredType.asElement())
+                                .getTypeParameters()
+                                .isEmpty()) {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+        }
+        if (irrelevantTypeAnnotator.isRelevant(underlying)) {
+            return false;
+        }
+        type.addAnnotations(irrelevantTypeAnnotator.getAnnotations());
+        return true;
+    }
+
     /**
      * Creates an {@link DefaultQualifierForUseTypeAnnotator}.
      *
@@ -893,6 +1029,7 @@ public abstract class GenericAnnotatedTypeFactory<
      *     method cannot exit through the regular exit block).
      */
     public @Nullable Store getRegularExitStore(Tree tree) {
+        ensureEnclosingMethodAnalyzed(tree);
         return regularExitStores.get(tree);
     }
 
@@ -904,6 +1041,7 @@ public abstract class GenericAnnotatedTypeFactory<
      * @return the exceptional exit store, or {@code null}, if there is no such store.
      */
     public @Nullable Store getExceptionalExitStore(Tree tree) {
+        ensureEnclosingMethodAnalyzed(tree);
         return exceptionalExitStores.get(tree);
     }
 
@@ -918,6 +1056,7 @@ public abstract class GenericAnnotatedTypeFactory<
      */
     public List<Pair<ReturnNode, TransferResult<Value, Store>>> getReturnStatementStores(
             MethodTree methodTree) {
+        ensureEnclosingMethodAnalyzed(methodTree);
         assert returnStatementStores.containsKey(methodTree);
         return returnStatementStores.get(methodTree);
     }
@@ -928,6 +1067,7 @@ public abstract class GenericAnnotatedTypeFactory<
      * @return the store immediately before a given {@link Tree}
      */
     public Store getStoreBefore(Tree tree) {
+        ensureEnclosingMethodAnalyzed(tree);
         if (!analysis.isRunning()) {
             return flowResult.getStoreBefore(tree);
         }
@@ -982,6 +1122,7 @@ public abstract class GenericAnnotatedTypeFactory<
      * @return the store immediately after a given {@link Tree}
      */
     public Store getStoreAfter(Tree tree) {
+        ensureEnclosingMethodAnalyzed(tree);
         if (!analysis.isRunning()) {
             return flowResult.getStoreAfter(tree);
         }
@@ -1034,6 +1175,7 @@ public abstract class GenericAnnotatedTypeFactory<
      * @see org.checkerframework.dataflow.analysis.AnalysisResult#getNodesForTree(Tree)
      */
     public Set<Node> getNodesForTree(Tree tree) {
+        ensureEnclosingMethodAnalyzed(tree);
         return flowResult.getNodesForTree(tree);
     }
 
@@ -1070,6 +1212,161 @@ public abstract class GenericAnnotatedTypeFactory<
         return flowResult.getFinalLocalValues();
     }
 
+    /**
+     * Returns the key under which the {@link MethodSummaryCache} stores the diagnostics issued for
+     * the given method, or null if the cache is disabled or the method is not eligible for it.
+     *
+     * <p>Constructors, methods without a body, and methods of local and anonymous classes are not
+     * eligible: checking them depends on initialization state or on enclosing code, which the key
+     * does not cover.
+     *
+     * @param method a method declaration in the current compilation unit
+     * @return the key for {@code method}, or null
+     */
+    public @Nullable String getMethodSummaryKey(MethodTree method) {
+        MethodSummaryCache summaryCache = checker.getMethodSummaryCache();
+        if (summaryCache == null) {
+            return null;
+        }
+        if (methodSummaryKeys.containsKey(method)) {
+            return methodSummaryKeys.get(method);
+        }
+        String key = null;
+        if (method.getBody() != null && !TreeUtils.isConstructor(method)) {
+            ExecutableElement methodElt = TreeUtils.elementFromDeclaration(method);
+            Element enclosing = methodElt.getEnclosingElement();
+            while (enclosing instanceof TypeElement) {
+                enclosing = enclosing.getEnclosingElement();
+            }
+            // Otherwise, the method belongs to a local or anonymous class.
+            if (enclosing.getKind() == ElementKind.PACKAGE) {
+                key = summaryCache.makeKey(computeMethodSummaryFingerprint(method, methodElt));
+            }
+        }
+        methodSummaryKeys.put(method, key);
+        return key;
+    }
+
+    /**
+     * Returns true if the diagnostics of this checker for the given method can be replayed from the
+     * {@link MethodSummaryCache} instead of checking the method. That requires the cache to contain
+     * the method's summary both for this checker and for each of its subcheckers, because this
+     * checker's diagnostics depend on the types that its subcheckers compute.
+     *
+     * @param method a method declaration in the current compilation unit
+     * @return true if the diagnostics for {@code method} can be replayed
+     */
+    public boolean canReplayMethodSummary(MethodTree method) {
+        String summaryKey = getMethodSummaryKey(method);
+        if (summaryKey == null || !checker.getMethodSummaryCache().contains(summaryKey)) {
+            return false;
+        }
+        for (BaseTypeChecker subchecker : checker.getImmediateSubcheckers()) {
+            GenericAnnotatedTypeFactory<?, ?, ?, ?> subFactory = subchecker.getTypeFactory();
+            if (subFactory == null || !subFactory.canReplayMethodSummary(method)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a fingerprint of everything that checking the given method depends on: the method
+     * itself, the annotated signatures of the elements it references and of the methods it
+     * overrides, the declaration annotations of its enclosing classes and package (which determine
+     * defaults and warning suppression), and the fields of its class (whose initializers determine
+     * the values of final fields).
+     *
+     * <p>Checkers whose checking of a method depends on anything else should override this method.
+     *
+     * @param method a method declaration
+     * @param methodElt the element for {@code method}
+     * @return a fingerprint of everything that checking {@code method} depends on
+     */
+    protected String computeMethodSummaryFingerprint(
+            MethodTree method, ExecutableElement methodElt) {
+        StringJoiner fingerprint = new StringJoiner("\0");
+        fingerprint.add(CFGFingerprint.compute(method));
+        addToMethodSummaryFingerprint(fingerprint, methodElt);
+        for (ExecutableElement overridden :
+                AnnotatedTypes.overriddenMethods(elements, this, methodElt).values()) {
+            addToMethodSummaryFingerprint(fingerprint, overridden);
+        }
+        Element enclosing = methodElt.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            addToMethodSummaryFingerprint(fingerprint, enclosing);
+            enclosing = enclosing.getEnclosingElement();
+        }
+        // The package.
+        addToMethodSummaryFingerprint(fingerprint, enclosing);
+        Tree classTree = declarationFromElement(methodElt.getEnclosingElement());
+        if (classTree instanceof ClassTree) {
+            for (Tree member : ((ClassTree) classTree).getMembers()) {
+                if (member.getKind() == Kind.VARIABLE) {
+                    fingerprint.add(member.toString());
+                }
+            }
+        }
+
+        Set<Element> referenced = new LinkedHashSet<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void scan(Tree tree, Void p) {
+                if (tree instanceof ExpressionTree) {
+                    Element elt = TreeUtils.elementFromTree(tree);
+                    if (elt != null && !isDeclaredWithin(elt, methodElt)) {
+                        referenced.add(elt);
+                    }
+                }
+                return super.scan(tree, p);
+            }
+        }.scan(method, null);
+        for (Element elt : referenced) {
+            addToMethodSummaryFingerprint(fingerprint, elt);
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Adds the annotated type and the declaration annotations of an element to a method summary
+     * fingerprint.
+     *
+     * @param fingerprint the fingerprint
+     * @param elt the element
+     */
+    private void addToMethodSummaryFingerprint(StringJoiner fingerprint, Element elt) {
+        fingerprint.add(elt.getKind() + " " + elt);
+        if (elt.getKind() != ElementKind.PACKAGE) {
+            fingerprint.add(getAnnotatedType(elt).toString(true));
+        }
+        fingerprint.add(getDeclAnnotations(elt).toString());
+    }
+
+    /**
+     * Returns true if {@code elt} is a local variable or parameter, or is declared within {@code
+     * method}.
+     *
+     * @param elt an element
+     * @param method a method
+     * @return true if {@code elt} is declared within {@code method}
+     */
+    private static boolean isDeclaredWithin(Element elt, ExecutableElement method) {
+        switch (elt.getKind()) {
+            case LOCAL_VARIABLE:
+            case PARAMETER:
+            case EXCEPTION_PARAMETER:
+            case RESOURCE_VARIABLE:
+                return true;
+            default:
+                for (Element e = elt; e != null; e = e.getEnclosingElement()) {
+                    if (e.equals(method)) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
     /**
      * Perform a org.checkerframework.dataflow analysis over a single class tree and its nested
      * classes.
@@ -1094,7 +1391,22 @@ public abstract class GenericAnnotatedTypeFactory<
 
         // No captured store for top-level classes.
         queue.add(Pair.of(classTree, null));
+        analyzeClasses(queue, fieldValues, classTree);
+    }
 
+    /**
+     * Performs flow analysis of the classes in {@code queue}, and of the classes that are added to
+     * {@code queue} while doing so. Except for constructors, the methods of the classes are not
+     * analyzed yet, but only when {@link #ensureMethodAnalyzed} is called for them.
+     *
+     * @param queue the classes to analyze, with their captured stores
+     * @param fieldValues the abstract values of final fields with initializers seen so far
+     * @param classTree the top-level class that contains the classes in {@code queue}
+     */
+    private void analyzeClasses(
+            Queue<Pair<ClassTree, Store>> queue,
+            List<Pair<VariableElement, Value>> fieldValues,
+            ClassTree classTree) {
         while (!queue.isEmpty()) {
             final Pair<ClassTree, Store> qel = queue.remove();
             final ClassTree ct = qel.first;
@@ -1174,9 +1486,12 @@ public abstract class GenericAnnotatedTypeFactory<
                         case ANNOTATION_TYPE:
                         case INTERFACE:
                         case ENUM:
-                            // Visit inner and nested class trees.
+                            // Visit inner and nested class trees, unless the visitor skips
+                            // them.
                             // TODO: Use no store for them? What can be captured?
-                            queue.add(Pair.of((ClassTree) m, capturedStore));
+                            if (!checker.shouldSkipDefs((ClassTree) m)) {
+                                queue.add(Pair.of((ClassTree) m, capturedStore));
+                            }
                             break;
                         case BLOCK:
                             BlockTree b = (BlockTree) m;
@@ -1197,39 +1512,37 @@ public abstract class GenericAnnotatedTypeFactory<
                     }
                 }
 
-                // Now analyze all methods.
+                // Now analyze the constructors. Other methods are analyzed only when their
+                // results are first needed; see ensureMethodAnalyzed.
                 // TODO: at this point, we don't have any information about
                 // fields of superclasses.
+                List<Pair<VariableElement, Value>> methodFieldValues = null;
                 for (CFGMethod met : methods) {
-                    analyze(
-                            queue,
-                            lambdaQueue,
-                            met,
-                            fieldValues,
-                            classTree,
-                            TreeUtils.isConstructor(met.getMethod()),
-                            false,
-                            false,
-                            capturedStore);
+                    if (TreeUtils.isConstructor(met.getMethod())) {
+                        analyze(
+                                queue,
+                                lambdaQueue,
+                                met,
+                                fieldValues,
+                                classTree,
+                                true,
+                                false,
+                                false,
+                                capturedStore);
+                    } else {
+                        if (methodFieldValues == null) {
+                            // Fields of classes analyzed later are not visible to the methods.
+                            methodFieldValues = new ArrayList<>(fieldValues);
+                        }
+                        deferredMethods.put(
+                                met.getMethod(),
+                                new DeferredMethod(
+                                        met, ct, classTree, methodFieldValues, capturedStore));
+                        addDeferredMethodTrees(met.getMethod());
+                    }
                 }
 
-                while (!lambdaQueue.isEmpty()) {
-                    Pair<LambdaExpressionTree, Store> lambdaPair = lambdaQueue.poll();
-                    MethodTree mt =
-                            (MethodTree)
-                                    TreeUtils.enclosingOfKind(
-                                            getPath(lambdaPair.first), Kind.METHOD);
-                    analyze(
-                            queue,
-                            lambdaQueue,
-                            new CFGLambda(lambdaPair.first, classTree, mt),
-                            fieldValues,
-                            classTree,
-                            false,
-                            false,
-                            false,
-                            lambdaPair.second);
-                }
+                analyzeLambdas(queue, lambdaQueue, fieldValues, classTree);
 
                 // by convention we store the static initialization store as the regular exit
                 // store of the class node, so that it can later be used to check
@@ -1252,6 +1565,195 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    /**
+     * Performs flow analysis of the lambdas in {@code lambdaQueue}, and of the lambdas that are
+     * added to {@code lambdaQueue} while doing so.
+     *
+     * @param queue the queue for encountered class trees and their initial stores
+     * @param lambdaQueue the lambdas to analyze, with their captured stores
+     * @param fieldValues the abstract values of final fields with initializers
+     * @param classTree the top-level class that contains the lambdas
+     */
+    private void analyzeLambdas(
+            Queue<Pair<ClassTree, Store>> queue,
+            Queue<Pair<LambdaExpressionTree, Store>> lambdaQueue,
+            List<Pair<VariableElement, Value>> fieldValues,
+            ClassTree classTree) {
+        while (!lambdaQueue.isEmpty()) {
+            Pair<LambdaExpressionTree, Store> lambdaPair = lambdaQueue.poll();
+            MethodTree mt =
+                    (MethodTree)
+                            TreeUtils.enclosingOfKind(getPath(lambdaPair.first), Kind.METHOD);
+            analyze(
+                    queue,
+                    lambdaQueue,
+                    new CFGLambda(lambdaPair.first, classTree, mt),
+                    fieldValues,
+                    classTree,
+                    false,
+                    false,
+                    false,
+                    lambdaPair.second);
+        }
+    }
+
+    /**
+     * Performs flow analysis of the given method, unless it has already been analyzed. The flow
+     * analysis of a class analyzes its field initializers, initializer blocks, and constructors
+     * right away, but defers the analysis of other methods until this method is called for them.
+     * The methods of this class that return flow-refined types, values, or stores for a tree call
+     * it for the method that contains the tree, so clients need not call it themselves.
+     *
+     * <p>The lambdas and classes declared within the method are analyzed at the same time as the
+     * method, because they capture stores from it.
+     *
+     * <p>If the diagnostics for the method are replayed from the method summary cache (see {@link
+     * #canReplayMethodSummary}), the diagnostics that the analysis issues are suppressed, because
+     * they are already among the replayed ones.
+     *
+     * @param method a method declaration in the current compilation unit
+     */
+    public void ensureMethodAnalyzed(MethodTree method) {
+        DeferredMethod deferred = deferredMethods.remove(method);
+        if (deferred == null) {
+            return;
+        }
+        MethodSummaryCache summaryCache = checker.getMethodSummaryCache();
+        String summaryKey = getMethodSummaryKey(method);
+        boolean replayed = canReplayMethodSummary(method);
+
+        Queue<Pair<ClassTree, Store>> queue = new ArrayDeque<>();
+        Queue<Pair<LambdaExpressionTree, Store>> lambdaQueue = new ArrayDeque<>();
+        // Classes declared within the method may add to the field values.
+        List<Pair<VariableElement, Value>> fieldValues = new ArrayList<>(deferred.fieldValues);
+
+        TreePath preTreePath = visitorState.getPath();
+        AnnotatedDeclaredType preClassType = visitorState.getClassType();
+        ClassTree preClassTree = visitorState.getClassTree();
+        AnnotatedDeclaredType preAMT = visitorState.getMethodReceiver();
+        MethodTree preMT = visitorState.getMethodTree();
+        Store preInitializationStore = initializationStore;
+        Store preInitializationStaticStore = initializationStaticStore;
+
+        // Don't use getPath, b/c that depends on the visitorState path.
+        visitorState.setPath(TreePath.getPath(this.root, deferred.enclosingClass));
+        visitorState.setClassType(
+                getAnnotatedType(TreeUtils.elementFromDeclaration(deferred.enclosingClass)));
+        visitorState.setClassTree(deferred.enclosingClass);
+        visitorState.setMethodReceiver(null);
+        visitorState.setMethodTree(null);
+
+        if (replayed) {
+            summaryCache.startSuppressing(method);
+        } else if (summaryKey != null) {
+            summaryCache.startRecording(summaryKey, method);
+        }
+        try {
+            analyze(
+                    queue,
+                    lambdaQueue,
+                    deferred.ast,
+                    fieldValues,
+                    deferred.topLevelClass,
+                    false,
+                    false,
+                    false,
+                    deferred.capturedStore);
+            analyzeLambdas(queue, lambdaQueue, fieldValues, deferred.topLevelClass);
+            analyzeClasses(queue, fieldValues, deferred.topLevelClass);
+        } finally {
+            if (replayed) {
+                summaryCache.stopSuppressing();
+            } else if (summaryKey != null) {
+                summaryCache.stopRecording();
+            }
+            visitorState.setPath(preTreePath);
+            visitorState.setClassType(preClassType);
+            visitorState.setClassTree(preClassTree);
+            visitorState.setMethodReceiver(preAMT);
+            visitorState.setMethodTree(preMT);
+            initializationStore = preInitializationStore;
+            initializationStaticStore = preInitializationStaticStore;
+        }
+    }
+
+    /**
+     * Performs the deferred flow analysis of the method that contains {@code tree}, if there is
+     * one, so that the flow results for {@code tree} are available. Does nothing while an analysis
+     * is running, because analyses cannot be nested.
+     *
+     * @param tree a tree in the current compilation unit
+     */
+    private void ensureEnclosingMethodAnalyzed(Tree tree) {
+        if (deferredMethods.isEmpty() || analysis.isRunning()) {
+            return;
+        }
+        MethodTree method = deferredMethodTrees.get(tree);
+        // Analyzing a method defers the methods of the classes declared within it, so the tree may
+        // then belong to another deferred method.
+        while (method != null && deferredMethods.containsKey(method)) {
+            ensureMethodAnalyzed(method);
+            method = deferredMethodTrees.get(tree);
+        }
+    }
+
+    /**
+     * Maps each tree within {@code method} to {@code method} in {@link #deferredMethodTrees}.
+     *
+     * @param method a method whose flow analysis is deferred
+     */
+    private void addDeferredMethodTrees(MethodTree method) {
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void scan(Tree tree, Void p) {
+                if (tree != null) {
+                    deferredMethodTrees.put(tree, method);
+                }
+                return super.scan(tree, p);
+            }
+        }.scan(method, null);
+    }
+
+    /** A method whose flow analysis is deferred, with the context that the analysis needs. */
+    private class DeferredMethod {
+        /** The method. */
+        final CFGMethod ast;
+
+        /** The class that declares the method. */
+        final ClassTree enclosingClass;
+
+        /** The top-level class that contains the method. */
+        final ClassTree topLevelClass;
+
+        /** The abstract values of final fields that are visible to the method. */
+        final List<Pair<VariableElement, Value>> fieldValues;
+
+        /** The store captured by the class that declares the method, or null. */
+        final @Nullable Store capturedStore;
+
+        /**
+         * Creates a new DeferredMethod.
+         *
+         * @param ast the method
+         * @param enclosingClass the class that declares the method
+         * @param topLevelClass the top-level class that contains the method
+         * @param fieldValues the abstract values of final fields that are visible to the method
+         * @param capturedStore the store captured by the class that declares the method, or null
+         */
+        DeferredMethod(
+                CFGMethod ast,
+                ClassTree enclosingClass,
+                ClassTree topLevelClass,
+                List<Pair<VariableElement, Value>> fieldValues,
+                @Nullable Store capturedStore) {
+            this.ast = ast;
+            this.enclosingClass = enclosingClass;
+            this.topLevelClass = topLevelClass;
+            this.fieldValues = fieldValues;
+            this.capturedStore = capturedStore;
+        }
+    }
+
     /**
      * Analyze the AST {@code ast} and store the result. Additional operations that should be
      * performed after analysis should be implemented in {@link #postAnalyze(ControlFlowGraph)}.
@@ -1580,18 +2082,50 @@ public abstract class GenericAnnotatedTypeFactory<
             // If a tree annotator, did not add a type, add the DefaultForUse default.
             addAnnotationsFromDefaultForType(TreeUtils.elementFromTree(tree), type);
         }
-        typeAnnotator.visit(type, null);
-        defaults.annotate(tree, type);
+        // The tree annotator may annotate an irrelevant type, such as a char literal for the Regex
+        // Checker, so the shortcut only applies to types that are still unannotated here.
+        if (!annotateIfIrrelevantLeafType(type)) {
+            typeAnnotator.visit(type, null);
+            defaults.annotate(tree, type);
+        }
 
         if (iUseFlow) {
-            Value as = getInferredValueFor(tree);
+            ensureEnclosingMethodAnalyzed(tree);
+            if (!isUnrefinedByFlow(tree, type)) {
+                Value as = getInferredValueFor(tree);
 
-            if (as != null) {
-                applyInferredAnnotations(type, as);
+                if (as != null) {
+                    applyInferredAnnotations(type, as);
+                }
             }
         }
     }
 
+    /**
+     * Returns true if dataflow analysis of {@code tree} has finished and did not refine the type of
+     * any of its nodes. Applying the inferred value of such a tree would recompute the
+     * annotations that {@code type} already has, so the lookup and the application can be
+     * skipped. Type variables, wildcards, and intersections are excluded, because applying an
+     * inferred value can change their bounds even when the primary annotations agree.
+     *
+     * @param tree an AST node
+     * @param type the type computed for {@code tree} without dataflow information
+     * @return true if the inferred value of {@code tree} need not be applied to {@code type}
+     */
+    private boolean isUnrefinedByFlow(Tree tree, AnnotatedTypeMirror type) {
+        if (analysis.isRunning() || flowResult == null) {
+            return false;
+        }
+        switch (type.getKind()) {
+            case TYPEVAR:
+            case WILDCARD:
+            case INTERSECTION:
+                return false;
+            default:
+                return !flowResult.hasRefinedValue(tree);
+        }
+    }
+
     /**
      * Flow analysis will be performed if all of the following are true.
      *
@@ -1625,6 +2159,7 @@ public abstract class GenericAnnotatedTypeFactory<
             throw new BugInCF(
                     "GenericAnnotatedTypeFactory.getInferredValueFor called with null tree");
         }
+        ensureEnclosingMethodAnalyzed(tree);
         Value as = null;
         if (analysis.isRunning()) {
             as = analysis.getValue(tree);
@@ -1792,8 +2327,10 @@ public abstract class GenericAnnotatedTypeFactory<
     public void addComputedTypeAnnotations(Element elt, AnnotatedTypeMirror type) {
         addAnnotationsFromDefaultForType(elt, type);
         applyQualifierParameterDefaults(elt, type);
-        typeAnnotator.visit(type, null);
-        defaults.annotate(elt, type);
+        if (!annotateIfIrrelevantLeafType(type)) {
+            typeAnnotator.visit(type, null);
+            defaults.annotate(elt, type);
+        }
         if (dependentTypesHelper != null) {
             dependentTypesHelper.standardizeVariable(type, elt);
         }
@@ -1990,22 +2527,18 @@ public abstract class GenericAnnotatedTypeFactory<
                 // location.
                 AnnotatedDeclaredType declaredType = (AnnotatedDeclaredType) type;
                 if (declaredType.getEnclosingType() != null) {
-                    defaultQualifierForUseTypeAnnotator.visit(declaredType.getEnclosingType());
-                    defaultForTypeAnnotator.visit(declaredType.getEnclosingType());
+                    defaultsForTypeAnnotator.visit(declaredType.getEnclosingType());
                 }
                 for (AnnotatedTypeMirror typeArg : declaredType.getTypeArguments()) {
-                    defaultQualifierForUseTypeAnnotator.visit(typeArg);
-                    defaultForTypeAnnotator.visit(typeArg);
+                    defaultsForTypeAnnotator.visit(typeArg);
                 }
             } else if (type.getKind().isPrimitive()) {
                 // Don't apply the default for local variables with primitive types.
             } else {
-                defaultQualifierForUseTypeAnnotator.visit(type);
-                defaultForTypeAnnotator.visit(type);
+                defaultsForTypeAnnotator.visit(type);
             }
         } else {
-            defaultQualifierForUseTypeAnnotator.visit(type);
-            defaultForTypeAnnotator.visit(type);
+            defaultsForTypeAnnotator.visit(type);
         }
     }
 }
@@ -9,8 +9,11 @@ import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeScanner;
  * <p>This class should be synchronized with EqualityAtmComparer.
  *
  * @see org.checkerframework.framework.type.EqualityAtmComparer for more details.
- *     <p>This is used by AnnotatedTypeMirror.hashcode.
+ * @deprecated AnnotatedTypeMirror.hashCode no longer uses this class. Use {@link
+ *     AnnotatedTypeMirror#hashCode} instead, which is consistent with {@link
+ *     AnnotatedTypeMirror#equals} and cached.
  */
+@Deprecated // use AnnotatedTypeMirror.hashCode instead
 public class HashcodeAtmVisitor extends SimpleAnnotatedTypeScanner<Integer, Void> {
 
     /** Creates a {@link HashcodeAtmVisitor}. */
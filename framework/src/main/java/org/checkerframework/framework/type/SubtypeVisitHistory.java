@@ -21,6 +21,10 @@ import org.checkerframework.javacutil.Pair;
  * but with a different supertype. For example, if the two types are {@code @A T extends @B
  * Serializable<T>} and {@code @C Serializable<?>}, then isSubtype is first called one those types
  * and then on {@code @B Serializable<T>} and {@code @C Serializable<?>}.
+ *
+ * <p>The types are stored as {@link AnnotatedTypeKey}s, which are hashed by the cached
+ * fingerprints of the types. Looking up a pair therefore only compares the types structurally if
+ * their fingerprints match those of a visited pair.
  */
 // TODO: do we need to clear the history sometimes?
 public class SubtypeVisitHistory {
@@ -29,13 +33,25 @@ public class SubtypeVisitHistory {
      * The keys are pairs of types; the value is the set of qualifier hierarchy roots for which the
      * key is in a subtype relationship.
      */
-    private final Map<Pair<AnnotatedTypeMirror, AnnotatedTypeMirror>, Set<AnnotationMirror>>
-            visited;
+    private final Map<Pair<AnnotatedTypeKey, AnnotatedTypeKey>, Set<AnnotationMirror>> visited;
 
+    /** Creates a new SubtypeVisitHistory. */
     public SubtypeVisitHistory() {
         this.visited = new HashMap<>();
     }
 
+    /**
+     * Returns the key under which the given pair of types is stored.
+     *
+     * @param type1 the first type
+     * @param type2 the second type
+     * @return the key of the pair
+     */
+    private Pair<AnnotatedTypeKey, AnnotatedTypeKey> keyOf(
+            AnnotatedTypeMirror type1, AnnotatedTypeMirror type2) {
+        return Pair.of(AnnotatedTypeKey.of(type1), AnnotatedTypeKey.of(type2));
+    }
+
     /**
      * Add a visit for type1 and type2. Has no effect if b is false.
      *
@@ -54,7 +70,7 @@ public class SubtypeVisitHistory {
             // We only store information about subtype relations that hold.
             return;
         }
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        Pair<AnnotatedTypeKey, AnnotatedTypeKey> key = keyOf(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
 
         if (hit != null) {
@@ -71,7 +87,7 @@ public class SubtypeVisitHistory {
             final AnnotatedTypeMirror type1,
             final AnnotatedTypeMirror type2,
             AnnotationMirror currentTop) {
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        Pair<AnnotatedTypeKey, AnnotatedTypeKey> key = keyOf(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
         if (hit != null) {
             hit.remove(currentTop);
@@ -91,7 +107,7 @@ public class SubtypeVisitHistory {
             final AnnotatedTypeMirror type1,
             final AnnotatedTypeMirror type2,
             AnnotationMirror currentTop) {
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        Pair<AnnotatedTypeKey, AnnotatedTypeKey> key = keyOf(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
         return hit != null && hit.contains(currentTop);
     }
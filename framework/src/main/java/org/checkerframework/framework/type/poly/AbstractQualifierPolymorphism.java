@@ -85,6 +85,9 @@ public abstract class AbstractQualifierPolymorphism implements QualifierPolymorp
      */
     private final SimpleAnnotatedTypeScanner<Void, Void> completer;
 
+    /** Determines whether a type contains a polymorphic qualifier anywhere. */
+    private final SimpleAnnotatedTypeScanner<Boolean, Void> polyFinder;
+
     /** Mapping from poly qualifier to its instantiation for types with a qualifier parameter. */
     protected final AnnotationMirrorMap<AnnotationMirror> polyInstantiationForQualifierParameter =
             new AnnotationMirrorMap<>();
@@ -130,6 +133,31 @@ public abstract class AbstractQualifierPolymorphism implements QualifierPolymorp
                             replace(type, map);
                             return null;
                         });
+
+        this.polyFinder =
+                new SimpleAnnotatedTypeScanner<>(
+                        (type, p) -> {
+                            for (AnnotationMirror anno : type.getAnnotations()) {
+                                if (polyQuals.containsKey(anno)) {
+                                    return true;
+                                }
+                            }
+                            return false;
+                        },
+                        Boolean::logicalOr,
+                        false);
+    }
+
+    /**
+     * Returns true if {@code type} or any of its component types has a polymorphic qualifier. If
+     * the type of an invoked method or constructor has none, then there is nothing to resolve, and
+     * the types of the arguments need not be computed.
+     *
+     * @param type a type
+     * @return true if {@code type} contains a polymorphic qualifier
+     */
+    protected boolean hasPolymorphicQualifier(AnnotatedTypeMirror type) {
+        return polyFinder.visit(type);
     }
 
     /**
@@ -163,6 +191,9 @@ public abstract class AbstractQualifierPolymorphism implements QualifierPolymorp
         if (TreeUtils.isEnumSuper(tree)) {
             return;
         }
+        if (!hasPolymorphicQualifier(type)) {
+            return;
+        }
         List<AnnotatedTypeMirror> parameters =
                 AnnotatedTypes.expandVarArgs(atypeFactory, type, tree.getArguments());
         List<AnnotatedTypeMirror> arguments =
@@ -194,7 +225,7 @@ public abstract class AbstractQualifierPolymorphism implements QualifierPolymorp
 
     @Override
     public void resolve(NewClassTree tree, AnnotatedExecutableType type) {
-        if (polyQuals.isEmpty()) {
+        if (polyQuals.isEmpty() || !hasPolymorphicQualifier(type)) {
             return;
         }
         List<AnnotatedTypeMirror> parameters =
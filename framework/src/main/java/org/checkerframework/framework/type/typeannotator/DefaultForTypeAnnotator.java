@@ -136,6 +136,17 @@ public class DefaultForTypeAnnotator extends TypeAnnotator {
 
     @Override
     protected Void scan(AnnotatedTypeMirror type, Void p) {
+        annotateNode(type);
+        return super.scan(type, p);
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return getClass() == DefaultForTypeAnnotator.class;
+    }
+
+    @Override
+    public void annotateNode(AnnotatedTypeMirror type) {
         // If the type's fully-qualified name is in the appropriate map, annotate
         // the type. Do this before looking at kind or class, as this information
         // is more specific.
@@ -168,8 +179,6 @@ public class DefaultForTypeAnnotator extends TypeAnnotator {
                 type.addMissingAnnotations(fromClass);
             }
         }
-
-        return super.scan(type, p);
     }
 
     /**
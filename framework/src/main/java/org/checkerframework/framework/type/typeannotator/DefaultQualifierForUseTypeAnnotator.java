@@ -7,6 +7,7 @@ import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.Name;
+import javax.lang.model.type.TypeKind;
 import org.checkerframework.framework.qual.DefaultQualifierForUse;
 import org.checkerframework.framework.qual.NoDefaultQualifierForUse;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -27,10 +28,23 @@ public class DefaultQualifierForUseTypeAnnotator extends TypeAnnotator {
 
     @Override
     public Void visitDeclared(AnnotatedDeclaredType type, Void aVoid) {
-        Element element = type.getUnderlyingType().asElement();
+        annotateNode(type);
+        return super.visitDeclared(type, aVoid);
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return getClass() == DefaultQualifierForUseTypeAnnotator.class;
+    }
+
+    @Override
+    public void annotateNode(AnnotatedTypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        Element element = ((AnnotatedDeclaredType) type).getUnderlyingType().asElement();
         Set<AnnotationMirror> annosToApply = getDefaultAnnosForUses(element);
         type.addMissingAnnotations(annosToApply);
-        return super.visitDeclared(type, aVoid);
     }
 
     /**
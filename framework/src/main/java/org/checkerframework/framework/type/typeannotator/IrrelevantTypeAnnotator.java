@@ -32,6 +32,12 @@ public class IrrelevantTypeAnnotator extends TypeAnnotator {
      */
     private Set<TypeMirror> allFoundRelevantTypes;
 
+    /**
+     * Cache of declared types found that are neither relevantTypes nor subclasses of them. Used so
+     * that isSubtype doesn't need to be called repeatedly on the same types.
+     */
+    private Set<TypeMirror> allFoundIrrelevantTypes;
+
     private boolean arraysAreRelevant;
     private Set<? extends AnnotationMirror> annotations;
 
@@ -65,53 +71,87 @@ public class IrrelevantTypeAnnotator extends TypeAnnotator {
             }
         }
         this.allFoundRelevantTypes = Collections.newSetFromMap(CollectionUtils.createLRUCache(300));
+        this.allFoundIrrelevantTypes =
+                Collections.newSetFromMap(CollectionUtils.createLRUCache(300));
     }
 
-    @Override
-    protected Void scan(AnnotatedTypeMirror type, Void aVoid) {
-        switch (type.getKind()) {
-            case TYPEVAR:
-            case WILDCARD:
-            case EXECUTABLE:
-            case INTERSECTION:
-            case UNION:
-            case NULL:
-            case NONE:
-            case PACKAGE:
-            case VOID:
-                return super.scan(type, aVoid);
-            default:
-                // go on
-        }
-
-        Types types = typeFactory.getContext().getTypeUtils();
-        TypeMirror typeMirror = type.getUnderlyingType();
+    /**
+     * Returns the annotations that this adds to irrelevant types.
+     *
+     * @return the annotations that this adds to irrelevant types
+     */
+    public Set<? extends AnnotationMirror> getAnnotations() {
+        return annotations;
+    }
 
+    /**
+     * Returns true if the given type is relevant: that is, if it is one of (or a subtype of) the
+     * relevant classes, or it is an array and arrays are relevant. Only declared, primitive, and
+     * array types can be relevant.
+     *
+     * @param typeMirror a type
+     * @return true if {@code typeMirror} is relevant
+     */
+    public boolean isRelevant(TypeMirror typeMirror) {
         if (TypesUtils.isPrimitive(typeMirror)) {
+            Types types = typeFactory.getContext().getTypeUtils();
             typeMirror = types.boxedClass((PrimitiveType) typeMirror).asType();
         }
 
-        boolean shouldAnnotate = true;
         if (allFoundRelevantTypes.contains(typeMirror)) {
-            shouldAnnotate = false;
+            return true;
         } else if (typeMirror.getKind() == TypeKind.DECLARED) {
+            if (allFoundIrrelevantTypes.contains(typeMirror)) {
+                return false;
+            }
+            Types types = typeFactory.getContext().getTypeUtils();
             for (TypeMirror supportedType : relevantTypes) {
                 if (types.isSubtype(typeMirror, supportedType)) {
-                    shouldAnnotate = false;
                     allFoundRelevantTypes.add(typeMirror);
-                    break;
+                    return true;
                 }
             }
+            allFoundIrrelevantTypes.add(typeMirror);
+            return false;
         } else if (typeMirror.getKind() == TypeKind.ARRAY) {
-            shouldAnnotate = arraysAreRelevant;
             if (arraysAreRelevant) {
                 allFoundRelevantTypes.add(typeMirror);
             }
+            return arraysAreRelevant;
+        }
+        return false;
+    }
+
+    @Override
+    protected Void scan(AnnotatedTypeMirror type, Void aVoid) {
+        annotateNode(type);
+        return super.scan(type, aVoid);
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return getClass() == IrrelevantTypeAnnotator.class;
+    }
+
+    @Override
+    public void annotateNode(AnnotatedTypeMirror type) {
+        switch (type.getKind()) {
+            case TYPEVAR:
+            case WILDCARD:
+            case EXECUTABLE:
+            case INTERSECTION:
+            case UNION:
+            case NULL:
+            case NONE:
+            case PACKAGE:
+            case VOID:
+                return;
+            default:
+                // go on
         }
 
-        if (shouldAnnotate) {
+        if (!isRelevant(type.getUnderlyingType())) {
             type.addMissingAnnotations(annotations);
         }
-        return super.scan(type, aVoid);
     }
 }
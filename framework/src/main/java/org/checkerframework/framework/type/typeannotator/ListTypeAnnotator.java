@@ -24,6 +24,14 @@ public final class ListTypeAnnotator extends TypeAnnotator {
      */
     final List<TypeAnnotator> annotators;
 
+    /**
+     * The annotators that {@link #scan} executes: {@link #annotators}, except that each run of
+     * consecutive node-local annotators is replaced by a single {@link NodeLocalTypeAnnotators}.
+     *
+     * @see TypeAnnotator#isNodeLocal()
+     */
+    private final List<TypeAnnotator> fusedAnnotators;
+
     /**
      * Create a new ListTypeAnnotator.
      *
@@ -49,11 +57,60 @@ public final class ListTypeAnnotator extends TypeAnnotator {
             }
         }
         this.annotators = Collections.unmodifiableList(annotatorList);
+        this.fusedAnnotators = fuseNodeLocalAnnotators(annotatorList);
+    }
+
+    /**
+     * Replaces each run of two or more consecutive node-local annotators in {@code annotators} by
+     * a single annotator that applies all of them in one traversal.
+     *
+     * @param annotators a list of annotators
+     * @return the annotators to execute in place of {@code annotators}
+     */
+    private static List<TypeAnnotator> fuseNodeLocalAnnotators(List<TypeAnnotator> annotators) {
+        List<TypeAnnotator> result = new ArrayList<>(annotators.size());
+        List<TypeAnnotator> run = new ArrayList<>();
+        for (TypeAnnotator annotator : annotators) {
+            if (annotator.isNodeLocal()) {
+                run.add(annotator);
+            } else {
+                addRun(result, run);
+                run.clear();
+                result.add(annotator);
+            }
+        }
+        addRun(result, run);
+        return result;
+    }
+
+    /**
+     * Adds the run of node-local annotators {@code run} to {@code result}, as a single annotator if
+     * it has more than one element.
+     *
+     * @param result the list to which to add
+     * @param run consecutive node-local annotators
+     */
+    private static void addRun(List<TypeAnnotator> result, List<TypeAnnotator> run) {
+        if (run.size() == 1) {
+            result.add(run.get(0));
+        } else if (run.size() > 1) {
+            result.add(new NodeLocalTypeAnnotators(new ArrayList<>(run)));
+        }
+    }
+
+    /**
+     * Returns the annotators that are executed for each type scanned by this TypeAnnotator, in the
+     * order in which they are executed.
+     *
+     * @return the annotators that are executed for each type scanned by this TypeAnnotator
+     */
+    public List<TypeAnnotator> getAnnotators() {
+        return annotators;
     }
 
     @Override
     protected Void scan(AnnotatedTypeMirror type, Void aVoid) {
-        for (TypeAnnotator annotator : annotators) {
+        for (TypeAnnotator annotator : fusedAnnotators) {
             annotator.visit(type, aVoid);
         }
 
@@ -64,4 +121,48 @@ public final class ListTypeAnnotator extends TypeAnnotator {
     public String toString() {
         return "ListTypeAnnotator" + annotators;
     }
+
+    /**
+     * Applies several node-local annotators, in order, to each type visited in a single
+     * traversal. Because each of them changes only the type it is applied to, based only on that
+     * type, this has the same effect as one traversal per annotator.
+     */
+    private static final class NodeLocalTypeAnnotators extends TypeAnnotator {
+
+        /** The node-local annotators, in the order in which they are applied. */
+        private final List<TypeAnnotator> annotators;
+
+        /**
+         * Creates a new NodeLocalTypeAnnotators.
+         *
+         * @param annotators the node-local annotators, in the order in which they are applied
+         */
+        NodeLocalTypeAnnotators(List<TypeAnnotator> annotators) {
+            super(null);
+            this.annotators = annotators;
+        }
+
+        @Override
+        protected Void scan(AnnotatedTypeMirror type, Void aVoid) {
+            annotateNode(type);
+            return super.scan(type, aVoid);
+        }
+
+        @Override
+        public boolean isNodeLocal() {
+            return true;
+        }
+
+        @Override
+        public void annotateNode(AnnotatedTypeMirror type) {
+            for (TypeAnnotator annotator : annotators) {
+                annotator.annotateNode(type);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "NodeLocalTypeAnnotators" + annotators;
+        }
+    }
 }
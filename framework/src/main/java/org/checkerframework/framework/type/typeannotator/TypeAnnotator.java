@@ -5,6 +5,7 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
+import org.checkerframework.javacutil.BugInCF;
 
 /**
  * {@link TypeAnnotator} is an abstract AnnotatedTypeScanner to be used with {@link
@@ -34,4 +35,31 @@ public abstract class TypeAnnotator extends AnnotatedTypeScanner<Void, Void> {
     public Void visitExecutable(AnnotatedExecutableType method, Void aVoid) {
         return super.visitExecutable(method, aVoid);
     }
+
+    /**
+     * Returns true if this annotator is node-local: scanning a type with it has the same effect as
+     * calling {@link #annotateNode} on every type that {@link AnnotatedTypeScanner} visits, and
+     * {@link #annotateNode} changes at most the primary annotations of its argument, based only on
+     * that type and not on its component types. {@link ListTypeAnnotator} applies consecutive
+     * node-local annotators in a single traversal of each type.
+     *
+     * <p>The default implementation returns false. A node-local annotator should return false for
+     * subclasses that override its scan or visit methods.
+     *
+     * @return true if this annotator is node-local
+     */
+    public boolean isNodeLocal() {
+        return false;
+    }
+
+    /**
+     * Annotates {@code type} itself, without visiting its component types. Only called if {@link
+     * #isNodeLocal()} returns true.
+     *
+     * @param type the type to annotate
+     */
+    public void annotateNode(AnnotatedTypeMirror type) {
+        throw new BugInCF(
+                "annotateNode called on a type annotator that is not node-local: " + this);
+    }
 }
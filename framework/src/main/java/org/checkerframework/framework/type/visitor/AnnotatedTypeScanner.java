@@ -151,15 +151,28 @@ public abstract class AnnotatedTypeScanner<R, P> implements AnnotatedTypeVisitor
         this(null, null);
     }
 
+    /**
+     * The expected number of entries in {@link #visitedNodes}. Most types contain few type
+     * variables, wildcards, or parameterized types, and many scanners are short-lived, so the map
+     * starts small rather than with the default capacity of {@link IdentityHashMap}.
+     */
+    private static final int EXPECTED_VISITED_NODES = 4;
+
     // To prevent infinite loops
-    protected final Map<AnnotatedTypeMirror, R> visitedNodes = new IdentityHashMap<>();
+    protected final Map<AnnotatedTypeMirror, R> visitedNodes =
+            new IdentityHashMap<>(EXPECTED_VISITED_NODES);
 
     /**
      * Reset the scanner to allow reuse of the same instance. Subclasses should override this method
      * to clear their additional state; they must call the super implementation.
      */
     public void reset() {
-        visitedNodes.clear();
+        // IdentityHashMap.clear takes time proportional to the capacity of the map, even if it is
+        // empty.  Scanning a type without type variables, wildcards, or parameterized types
+        // leaves the map empty.
+        if (!visitedNodes.isEmpty()) {
+            visitedNodes.clear();
+        }
     }
 
     /**
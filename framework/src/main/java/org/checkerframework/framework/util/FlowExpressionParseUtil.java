@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -74,6 +75,7 @@ import org.checkerframework.dataflow.cfg.node.ObjectCreationNode;
 import org.checkerframework.framework.source.DiagMessage;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.Resolver;
 import org.checkerframework.javacutil.TreeUtils;
@@ -105,6 +107,18 @@ public class FlowExpressionParseUtil {
 
     private static final int PARAMETER_REPLACEMENT_LENGTH = PARMETER_REPLACEMENT.length();
 
+    /** Size of {@link #expressionCache}. */
+    private static final int EXPRESSION_CACHE_SIZE = 1000;
+
+    /**
+     * Maps an expression string to its JavaParser AST. Parsing does not depend on where the string
+     * appears, and the same strings, such as "this.lock" or "#1", are used over and over again in
+     * annotations. Only strings that can be parsed are cached. The cached ASTs are never modified:
+     * {@link ExpressionToReceiverVisitor} only reads them.
+     */
+    private static final Map<String, Expression> expressionCache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(EXPRESSION_CACHE_SIZE));
+
     /**
      * Parse a string and return its representation as a {@link Receiver}, or throw an {@link
      * FlowExpressionParseException}.
@@ -122,12 +136,7 @@ public class FlowExpressionParseUtil {
             throws FlowExpressionParseException {
         context = context.copyAndSetUseLocalScope(useLocalScope);
         ProcessingEnvironment env = context.checkerContext.getProcessingEnvironment();
-        Expression expr;
-        try {
-            expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
-        } catch (ParseProblemException e) {
-            throw constructParserException(expression, "is an invalid expression");
-        }
+        Expression expr = parseExpression(expression);
 
         Receiver result;
         try {
@@ -151,6 +160,28 @@ public class FlowExpressionParseUtil {
         return result;
     }
 
+    /**
+     * Parses a string to a JavaParser AST, or returns the AST from {@link #expressionCache} if the
+     * string was previously parsed. The result must not be modified.
+     *
+     * @param expression flow expression to parse
+     * @return the JavaParser AST of {@code expression}
+     * @throws FlowExpressionParseException if {@code expression} cannot be parsed
+     */
+    private static Expression parseExpression(String expression)
+            throws FlowExpressionParseException {
+        Expression expr = expressionCache.get(expression);
+        if (expr == null) {
+            try {
+                expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
+            } catch (ParseProblemException e) {
+                throw constructParserException(expression, "is an invalid expression");
+            }
+            expressionCache.put(expression, expr);
+        }
+        return expr;
+    }
+
     /**
      * Replaces every occurrence of "#(number)" with "PARAMETER_REPLACEMENT(number)" where number is
      * an index of a parameter.
@@ -299,7 +330,7 @@ public class FlowExpressionParseUtil {
         @Override
         public Receiver visit(NameExpr expr, FlowExpressionContext context) {
             String s = expr.getNameAsString();
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
             if (!context.parsingMember && s.startsWith(PARMETER_REPLACEMENT)) {
                 // A parameter is a local variable, but it can be referenced outside of local scope
                 // using the special #NN syntax.
@@ -383,7 +414,7 @@ public class FlowExpressionParseUtil {
         @Override
         public Receiver visit(MethodCallExpr expr, FlowExpressionContext context) {
             String s = expr.toString();
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
 
             // methods with scope (receiver expression) need to change the parsing context so that
             // identifiers are resolved with respect to the receiver.
@@ -501,7 +532,7 @@ public class FlowExpressionParseUtil {
          */
         @Override
         public Receiver visit(FieldAccessExpr expr, FlowExpressionContext context) {
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
 
             Symbol.PackageSymbol packageSymbol =
                     resolver.findPackage(expr.getScope().toString(), path);
@@ -52,6 +52,7 @@ import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressio
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
 import org.plumelib.util.UtilPlume;
@@ -86,6 +87,26 @@ public class DependentTypesHelper {
     /** A map of annotation classes to the names of their elements that are Java expressions. */
     private Map<Class<? extends Annotation>, List<String>> annoToElements;
 
+    /** Size of {@link #standardizedAnnotationCache}. */
+    private static final int STANDARDIZED_ANNOTATION_CACHE_SIZE = 500;
+
+    /**
+     * Maps a dependent type annotation and the information used to standardize it to the
+     * standardized annotation. A key consists of the annotation name, the expression strings in
+     * the annotation, the receiver, outer receiver, arguments, and parsingMember flag of the {@link
+     * FlowExpressionContext}, the leaf of the local scope, and whether the local scope is used.
+     * Together these determine the result of {@link #standardizeDependentTypeAnnotation}.
+     */
+    private final Map<List<Object>, AnnotationMirror> standardizedAnnotationCache =
+            CollectionUtils.createLRUCache(STANDARDIZED_ANNOTATION_CACHE_SIZE);
+
+    /** The implementation of {@link #hasDependentType}; reused to avoid allocating a scanner. */
+    private final SimpleAnnotatedTypeScanner<Boolean, Void> hasDependentTypeScanner =
+            new SimpleAnnotatedTypeScanner<>(
+                    (type, p) -> type.getAnnotations().stream().anyMatch(this::isExpressionAnno),
+                    Boolean::logicalOr,
+                    false);
+
     public DependentTypesHelper(AnnotatedTypeFactory factory) {
         this.factory = factory;
 
@@ -524,9 +545,15 @@ public class DependentTypesHelper {
             AnnotatedTypeMirror type,
             boolean useLocalScope) {
         // localScope is null in dataflow when creating synthetic trees for enhanced for loops.
-        if (localScope != null) {
-            new StandardizeTypeAnnotator(context, localScope, useLocalScope).visit(type);
+        if (localScope == null) {
+            return;
         }
+        // Most types contain no dependent type annotations. Finding that out is much cheaper than
+        // standardizing, which copies every annotation in the type.
+        if (!hasDependentAnnotations() || !hasDependentType(type)) {
+            return;
+        }
+        new StandardizeTypeAnnotator(context, localScope, useLocalScope).visit(type);
     }
 
     protected String standardizeString(
@@ -591,27 +618,50 @@ public class DependentTypesHelper {
         return standardizeDependentTypeAnnotation(context, localScope, anno, useLocalScope);
     }
 
-    /** Standardizes a dependent type annotation. */
+    /**
+     * Standardizes a dependent type annotation. The result is memoized in {@link
+     * #standardizedAnnotationCache}.
+     */
     private AnnotationMirror standardizeDependentTypeAnnotation(
             FlowExpressionContext context,
             TreePath localScope,
             AnnotationMirror anno,
             boolean useLocalScope) {
-        AnnotationBuilder builder =
-                new AnnotationBuilder(
-                        factory.getProcessingEnv(), AnnotationUtils.annotationName(anno));
-
-        for (String value : getListOfExpressionElements(anno)) {
-            List<String> expressionStrings =
-                    AnnotationUtils.getElementValueArray(anno, value, String.class, true);
+        String annoName = AnnotationUtils.annotationName(anno);
+        List<String> elementNames = getListOfExpressionElements(anno);
+        List<List<String>> expressionStringsPerElement = new ArrayList<>(elementNames.size());
+        for (String value : elementNames) {
+            expressionStringsPerElement.add(
+                    AnnotationUtils.getElementValueArray(anno, value, String.class, true));
+        }
+
+        List<Object> key =
+                Arrays.asList(
+                        annoName,
+                        expressionStringsPerElement,
+                        context.receiver,
+                        context.outerReceiver,
+                        context.arguments,
+                        context.parsingMember,
+                        localScope.getLeaf(),
+                        useLocalScope);
+        AnnotationMirror result = standardizedAnnotationCache.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        AnnotationBuilder builder = new AnnotationBuilder(factory.getProcessingEnv(), annoName);
+        for (int i = 0; i < elementNames.size(); i++) {
             List<String> standardizedStrings = new ArrayList<>();
-            for (String expression : expressionStrings) {
+            for (String expression : expressionStringsPerElement.get(i)) {
                 standardizedStrings.add(
                         standardizeString(expression, context, localScope, useLocalScope));
             }
-            builder.setValue(value, standardizedStrings);
+            builder.setValue(elementNames.get(i), standardizedStrings);
         }
-        return builder.build();
+        result = builder.build();
+        standardizedAnnotationCache.put(key, result);
+        return result;
     }
 
     private class StandardizeTypeAnnotator extends AnnotatedTypeScanner<Void, Void> {
@@ -909,15 +959,7 @@ public class DependentTypesHelper {
         if (atm == null) {
             return false;
         }
-        boolean b =
-                new SimpleAnnotatedTypeScanner<>(
-                                (type, p) ->
-                                        type.getAnnotations().stream()
-                                                .anyMatch(this::isExpressionAnno),
-                                Boolean::logicalOr,
-                                false)
-                        .visit(atm);
-        return b;
+        return hasDependentTypeScanner.visit(atm);
     }
 
     /**
@@ -13,6 +13,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -21,6 +22,7 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeVariable;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic.Kind;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -51,6 +53,7 @@ import org.checkerframework.framework.util.typeinference.solver.InferredValue.In
 import org.checkerframework.framework.util.typeinference.solver.SubtypesSolver;
 import org.checkerframework.framework.util.typeinference.solver.SupertypesSolver;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypeAnnotationUtils;
@@ -104,9 +107,37 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
 
     private final boolean showInferenceSteps;
 
+    /** The size of {@link #inferenceCache}. */
+    private static final int INFERENCE_CACHE_SIZE = 300;
+
+    /**
+     * Caches the type arguments inferred from the arguments and the assignment context of an
+     * invocation, before they are corrected by {@link TypeArgInferenceUtil#correctResults}.
+     * Consecutive calls in a chain of generic method invocations, such as a stream pipeline, often
+     * have the same inputs. Null if the factory does not cache.
+     */
+    private final @Nullable Map<InferenceKey, Map<TypeVariable, AnnotatedTypeMirror>>
+            inferenceCache;
+
+    /**
+     * The hash codes of the keys of recent inferences whose results were not stored in {@link
+     * #inferenceCache}. A result is only stored if an inference with a key of the same hash code
+     * was done before, so that the inputs of inferences that are not repeated are not copied. Null
+     * if the factory does not cache.
+     */
+    private final @Nullable Map<Integer, Boolean> uncachedKeys;
+
     public DefaultTypeArgumentInference(AnnotatedTypeFactory typeFactory) {
         this.showInferenceSteps =
                 typeFactory.getContext().getChecker().hasOption("showInferenceSteps");
+        this.inferenceCache =
+                typeFactory.shouldCache
+                        ? CollectionUtils.createLRUCache(INFERENCE_CACHE_SIZE)
+                        : null;
+        this.uncachedKeys =
+                typeFactory.shouldCache
+                        ? CollectionUtils.createLRUCache(INFERENCE_CACHE_SIZE)
+                        : null;
     }
 
     @Override
@@ -160,21 +191,54 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
         }
         Map<TypeVariable, AnnotatedTypeMirror> inferredArgs;
         try {
-            inferredArgs =
-                    infer(typeFactory, argTypes, assignedTo, methodElem, methodType, targets, true);
-            if (showInferenceSteps) {
-                checker.message(Kind.NOTE, "  after infer: %s", inferredArgs);
-            }
-            handleNullTypeArguments(
-                    typeFactory,
-                    methodElem,
-                    methodType,
-                    argTypes,
-                    assignedTo,
-                    targets,
-                    inferredArgs);
-            if (showInferenceSteps) {
-                checker.message(Kind.NOTE, "  after handleNull: %s", inferredArgs);
+            InferenceKey key =
+                    inferenceCache == null
+                            ? null
+                            : new InferenceKey(methodElem, methodType, argTypes, assignedTo);
+            Map<TypeVariable, AnnotatedTypeMirror> cached =
+                    key == null ? null : inferenceCache.get(key);
+            if (cached != null) {
+                inferredArgs = deepCopy(cached);
+                if (showInferenceSteps) {
+                    checker.message(Kind.NOTE, "  cached: %s", inferredArgs);
+                }
+            } else {
+                // Only store the result of an inference that is repeated. Copy the key before
+                // inference, which might modify the argument types.
+                InferenceKey storedKey = null;
+                if (key != null) {
+                    if (uncachedKeys.remove(key.hashCode()) != null) {
+                        storedKey = key.deepCopy();
+                    } else {
+                        uncachedKeys.put(key.hashCode(), Boolean.TRUE);
+                    }
+                }
+                inferredArgs =
+                        infer(
+                                typeFactory,
+                                argTypes,
+                                assignedTo,
+                                methodElem,
+                                methodType,
+                                targets,
+                                true);
+                if (showInferenceSteps) {
+                    checker.message(Kind.NOTE, "  after infer: %s", inferredArgs);
+                }
+                handleNullTypeArguments(
+                        typeFactory,
+                        methodElem,
+                        methodType,
+                        argTypes,
+                        assignedTo,
+                        targets,
+                        inferredArgs);
+                if (showInferenceSteps) {
+                    checker.message(Kind.NOTE, "  after handleNull: %s", inferredArgs);
+                }
+                if (storedKey != null) {
+                    inferenceCache.put(storedKey, deepCopy(inferredArgs));
+                }
             }
         } catch (Exception ex) {
             // Catch any errors thrown by inference.
@@ -246,6 +310,108 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
         }
     }
 
+    /**
+     * Returns a copy of the given type arguments, with a deep copy of each type argument.
+     *
+     * @param inferredArgs map of type variables to the annotated types of their type arguments
+     * @return a copy of {@code inferredArgs}
+     */
+    private static Map<TypeVariable, AnnotatedTypeMirror> deepCopy(
+            Map<TypeVariable, AnnotatedTypeMirror> inferredArgs) {
+        Map<TypeVariable, AnnotatedTypeMirror> result = new LinkedHashMap<>();
+        for (Map.Entry<TypeVariable, AnnotatedTypeMirror> entry : inferredArgs.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().deepCopy());
+        }
+        return result;
+    }
+
+    /**
+     * The inputs of the inference of the type arguments of an invocation, used as a key of {@link
+     * #inferenceCache}. Types are compared with {@link AnnotatedTypeMirror#equals} and hashed
+     * with their structural fingerprints, so the invocations of a method with equal argument types
+     * and assignment contexts share a key.
+     */
+    private static final class InferenceKey {
+
+        /** The element of the invoked method. */
+        private final ExecutableElement methodElem;
+
+        /** The annotated type of the invoked method, as a member of the receiver type. */
+        private final AnnotatedExecutableType methodType;
+
+        /** The annotated types of the arguments. */
+        private final List<AnnotatedTypeMirror> argTypes;
+
+        /** The annotated type of the assignment context, or null if there is none. */
+        private final @Nullable AnnotatedTypeMirror assignedTo;
+
+        /** The hash code of this key, which is computed once. */
+        private final int hashCode;
+
+        /**
+         * Creates a new InferenceKey. The key refers to the given types, which must not be
+         * modified while the key is in use; use {@link #deepCopy} to store the key.
+         *
+         * @param methodElem the element of the invoked method
+         * @param methodType the annotated type of the invoked method
+         * @param argTypes the annotated types of the arguments
+         * @param assignedTo the annotated type of the assignment context, or null
+         */
+        InferenceKey(
+                ExecutableElement methodElem,
+                AnnotatedExecutableType methodType,
+                List<AnnotatedTypeMirror> argTypes,
+                @Nullable AnnotatedTypeMirror assignedTo) {
+            this.methodElem = methodElem;
+            this.methodType = methodType;
+            this.argTypes = argTypes;
+            this.assignedTo = assignedTo;
+            // The fingerprint of an executable type does not include its parameter types, which
+            // depend on the receiver type.
+            this.hashCode =
+                    Objects.hash(
+                            methodElem, methodType.getParameterTypes(), argTypes, assignedTo);
+        }
+
+        /**
+         * Returns a key that is equal to this one, but that refers to copies of its types.
+         *
+         * @return a copy of this key that is not affected by modifications of the types of this
+         */
+        InferenceKey deepCopy() {
+            List<AnnotatedTypeMirror> argTypesCopy = new ArrayList<>(argTypes.size());
+            for (AnnotatedTypeMirror argType : argTypes) {
+                argTypesCopy.add(argType.deepCopy());
+            }
+            return new InferenceKey(
+                    methodElem,
+                    methodType.deepCopy(),
+                    argTypesCopy,
+                    assignedTo == null ? null : assignedTo.deepCopy());
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InferenceKey)) {
+                return false;
+            }
+            InferenceKey other = (InferenceKey) o;
+            return hashCode == other.hashCode
+                    && methodElem.equals(other.methodElem)
+                    && argTypes.equals(other.argTypes)
+                    && Objects.equals(assignedTo, other.assignedTo)
+                    && methodType.equals(other.methodType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     private boolean hasNullType(Map<TypeVariable, AnnotatedTypeMirror> inferredArgs) {
         for (AnnotatedTypeMirror atm : inferredArgs.values()) {
             if (atm.getKind() == TypeKind.NULL) {
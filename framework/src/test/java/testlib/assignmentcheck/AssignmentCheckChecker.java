@@ -0,0 +1,16 @@
+package testlib.assignmentcheck;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Checker for the type system of {@link testlib.util.FlowTestChecker}, whose visitor reports which
+ * tier decided each assignment check.
+ */
+public class AssignmentCheckChecker extends BaseTypeChecker {
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new AssignmentCheckVisitor(this);
+    }
+}
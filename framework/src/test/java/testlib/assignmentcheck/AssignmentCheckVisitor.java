@@ -0,0 +1,93 @@
+package testlib.assignmentcheck;
+
+import com.sun.source.tree.Tree;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.javacutil.BugInCF;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Visitor that reports an "assignment.primitive", "assignment.declared", or "assignment.full"
+ * warning for each assignment check, depending on which counter of {@link
+ * #getAssignmentCheckStatistics} the check incremented. It reports a "trivially.assignable.unsound"
+ * error if {@link #isTriviallyAssignable} decided a check that the full subtype test fails.
+ */
+public final class AssignmentCheckVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** Matches the counters in the result of {@link #getAssignmentCheckStatistics}. */
+    private static final Pattern STATISTICS =
+            Pattern.compile(".*: (\\d+) primitive, (\\d+) non-generic declared, (\\d+) full");
+
+    /** The warnings for the counters matched by {@link #STATISTICS}, in the same order. */
+    private static final String[] TIER_WARNINGS = {
+        "assignment.primitive", "assignment.declared", "assignment.full"
+    };
+
+    /**
+     * True if {@link #isTriviallyAssignable} returned true for a pair of types that are not
+     * subtypes, since the start of the current assignment check.
+     */
+    private boolean unsound = false;
+
+    public AssignmentCheckVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    protected void commonAssignmentCheck(
+            AnnotatedTypeMirror varType,
+            AnnotatedTypeMirror valueType,
+            Tree valueTree,
+            @CompilerMessageKey String errorKey,
+            Object... extraArgs) {
+        long[] before = getCounters();
+        unsound = false;
+        super.commonAssignmentCheck(varType, valueType, valueTree, errorKey, extraArgs);
+        long[] after = getCounters();
+        for (int i = 0; i < TIER_WARNINGS.length; i++) {
+            if (after[i] != before[i]) {
+                checker.reportWarning(valueTree, TIER_WARNINGS[i]);
+            }
+        }
+        if (unsound) {
+            checker.reportError(valueTree, "trivially.assignable.unsound", valueType, varType);
+        }
+    }
+
+    @Override
+    protected boolean isTriviallyAssignable(
+            AnnotatedTypeMirror varType, AnnotatedTypeMirror valueType) {
+        boolean result = super.isTriviallyAssignable(varType, valueType);
+        if (result && !atypeFactory.getTypeHierarchy().isSubtype(valueType, varType)) {
+            unsound = true;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the counters of the tiers of the assignment checks.
+     *
+     * @return the counters of {@link #getAssignmentCheckStatistics}, in the order of {@link
+     *     #TIER_WARNINGS}
+     */
+    private long[] getCounters() {
+        Matcher m = STATISTICS.matcher(getAssignmentCheckStatistics());
+        if (!m.matches()) {
+            throw new BugInCF("Unexpected statistics: " + getAssignmentCheckStatistics());
+        }
+        long[] counters = new long[TIER_WARNINGS.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = Long.parseLong(m.group(i + 1));
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,16 @@
+package testlib.fingerprint;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Checker for the type system of {@link testlib.util.FlowTestChecker}, whose visitor checks that
+ * equal annotated types have equal hash codes.
+ */
+public class FingerprintChecker extends BaseTypeChecker {
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new FingerprintVisitor(this);
+    }
+}
@@ -0,0 +1,140 @@
+package testlib.fingerprint;
+
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.type.TypeKind;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.javacutil.TreeUtils;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Visitor that reports a "fingerprint.differs" error if two annotated types are equal but have
+ * different hash codes. For each variable and method invocation, it compares the type of the tree
+ * with the type of its element, with copies of the type, with copies that were modified after
+ * their hash code was computed, and with types that contain components created by another type
+ * factory.
+ */
+public final class FingerprintVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** Another type factory for the same type system, created on first use. */
+    private FlowTestAnnotatedTypeFactory otherFactory = null;
+
+    public FingerprintVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitVariable(VariableTree node, Void p) {
+        AnnotatedTypeMirror type = atypeFactory.getAnnotatedType(node);
+        AnnotatedTypeMirror elementType =
+                atypeFactory.getAnnotatedType(TreeUtils.elementFromDeclaration(node));
+        checkFingerprints(node, type, elementType);
+        checkCopies(node, type);
+        checkOtherFactory(node, type);
+        return super.visitVariable(node, p);
+    }
+
+    @Override
+    public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+        AnnotatedTypeMirror type = atypeFactory.getAnnotatedType(node);
+        checkFingerprints(node, type, atypeFactory.getAnnotatedType(node));
+        checkCopies(node, type);
+        checkOtherFactory(node, type);
+        return super.visitMethodInvocation(node, p);
+    }
+
+    /**
+     * Reports an error if the given types are equal but have different hash codes.
+     *
+     * @param tree the tree to report the error at
+     * @param type a type
+     * @param other another type
+     */
+    private void checkFingerprints(Tree tree, AnnotatedTypeMirror type, AnnotatedTypeMirror other) {
+        if (type.equals(other) && type.hashCode() != other.hashCode()) {
+            checker.reportError(tree, "fingerprint.differs", type, other);
+        }
+    }
+
+    /**
+     * Compares a type with a copy of it, and a copy whose components were modified after its hash
+     * code was computed with a copy of the modified copy.
+     *
+     * @param tree the tree to report errors at
+     * @param type a type
+     */
+    private void checkCopies(Tree tree, AnnotatedTypeMirror type) {
+        AnnotatedTypeMirror copy = type.deepCopy();
+        checkFingerprints(tree, type, copy);
+        if (type.getKind() == TypeKind.DECLARED) {
+            List<AnnotatedTypeMirror> typeArgs = ((AnnotatedDeclaredType) copy).getTypeArguments();
+            if (!typeArgs.isEmpty()) {
+                copy.hashCode();
+                typeArgs.get(0)
+                        .replaceAnnotations(
+                                atypeFactory.getQualifierHierarchy().getBottomAnnotations());
+                checkFingerprints(tree, copy, copy.deepCopy());
+            }
+        }
+    }
+
+    /**
+     * Compares the type arguments of a declared type with equal types created by another type
+     * factory, and a copy of the type whose type arguments were replaced by those types, and then
+     * modified after its hash code was computed, with a copy of it.
+     *
+     * @param tree the tree to report errors at
+     * @param type a type
+     */
+    private void checkOtherFactory(Tree tree, AnnotatedTypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        AnnotatedDeclaredType mixed = (AnnotatedDeclaredType) type.deepCopy();
+        List<AnnotatedTypeMirror> otherTypeArgs = new ArrayList<>();
+        for (AnnotatedTypeMirror typeArg : mixed.getTypeArguments()) {
+            if (typeArg.getKind() != TypeKind.DECLARED
+                    || !((AnnotatedDeclaredType) typeArg).getTypeArguments().isEmpty()) {
+                return;
+            }
+            AnnotatedTypeMirror otherTypeArg =
+                    AnnotatedTypeMirror.createType(
+                            typeArg.getUnderlyingType(), getOtherFactory(), false);
+            otherTypeArg.addAnnotations(typeArg.getAnnotations());
+            checkFingerprints(tree, typeArg, otherTypeArg);
+            otherTypeArgs.add(otherTypeArg);
+        }
+        if (otherTypeArgs.isEmpty()) {
+            return;
+        }
+        mixed.setTypeArguments(otherTypeArgs);
+        mixed.hashCode();
+        AnnotatedTypeMirror firstTypeArg = mixed.getTypeArguments().get(0);
+        firstTypeArg.replaceAnnotations(
+                getOtherFactory().getQualifierHierarchy().getBottomAnnotations());
+        checkFingerprints(tree, mixed, mixed.deepCopy());
+    }
+
+    /**
+     * Returns another type factory for the same type system.
+     *
+     * @return another type factory for the same type system
+     */
+    private FlowTestAnnotatedTypeFactory getOtherFactory() {
+        if (otherFactory == null) {
+            otherFactory = new FlowTestAnnotatedTypeFactory(checker);
+        }
+        return otherFactory;
+    }
+}
@@ -0,0 +1,16 @@
+package testlib.lazyflow;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Checker for the type system of {@link testlib.util.FlowTestChecker}, whose visitor queries
+ * flow-refined types before it visits the methods that contain them.
+ */
+public class LazyFlowChecker extends BaseTypeChecker {
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new LazyFlowVisitor(this);
+    }
+}
@@ -0,0 +1,57 @@
+package testlib.lazyflow;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.util.TreeScanner;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Visitor that queries the type of every returned expression of a class before it visits the
+ * methods of the class, and reports an "early.type.differs" error if the type differs from the
+ * one that it computes when it visits the return statement.
+ */
+public final class LazyFlowVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** The types of the returned expressions, computed before their methods were visited. */
+    private final Map<ExpressionTree, AnnotatedTypeMirror> earlyTypes = new IdentityHashMap<>();
+
+    public LazyFlowVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public void processClassTree(ClassTree classTree) {
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitReturn(ReturnTree node, Void p) {
+                ExpressionTree expression = node.getExpression();
+                if (expression != null) {
+                    earlyTypes.put(expression, atypeFactory.getAnnotatedType(expression));
+                }
+                return super.visitReturn(node, p);
+            }
+        }.scan(classTree.getMembers(), null);
+        super.processClassTree(classTree);
+    }
+
+    @Override
+    public Void visitReturn(ReturnTree node, Void p) {
+        AnnotatedTypeMirror earlyType = earlyTypes.remove(node.getExpression());
+        if (earlyType != null
+                && !earlyType.equals(atypeFactory.getAnnotatedType(node.getExpression()))) {
+            checker.reportError(node, "early.type.differs");
+        }
+        return super.visitReturn(node, p);
+    }
+}
@@ -0,0 +1,33 @@
+package testlib.typevarbounds;
+
+import java.util.Map;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Checker for the type system of {@link testlib.util.FlowTestChecker}, whose visitor checks that
+ * the bounds of type variables copied from the bounds cache of the type factory are equal to bounds
+ * that are initialized directly.
+ */
+public class TypeVariableBoundsChecker extends BaseTypeChecker {
+
+    /**
+     * Whether to pretend that -AatfDoNotCache was passed, so that a type factory created meanwhile
+     * initializes the bounds of every type variable directly.
+     */
+    boolean doNotCache = false;
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new TypeVariableBoundsVisitor(this);
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        Map<String, String> options = super.getOptions();
+        if (doNotCache) {
+            options.put("atfDoNotCache", null);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,150 @@
+package testlib.typevarbounds;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.TreeUtils;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+import testlib.util.Odd;
+
+/**
+ * Visitor that reports a "bounds.differ" error if the bounds of a type variable differ from the
+ * bounds of the same type variable created by a type factory that does not cache the bounds of
+ * type parameters. For the type parameters of each class, method, and invoked method, and of the
+ * class that declares the invoked method, it compares the type of the type parameter, which has the
+ * annotations on its declared bounds, and a use of the type parameter with a primary annotation.
+ * Each comparison is repeated, so that all but the first use copy the cached bounds.
+ */
+public final class TypeVariableBoundsVisitor
+        extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** The number of times that each type parameter is materialized. */
+    private static final int REPETITIONS = 3;
+
+    /** The {@code @Odd} annotation. */
+    private final AnnotationMirror ODD;
+
+    /** A type factory that initializes all bounds directly, created on first use. */
+    private FlowTestAnnotatedTypeFactory directFactory = null;
+
+    public TypeVariableBoundsVisitor(TypeVariableBoundsChecker checker) {
+        super(checker);
+        ODD = AnnotationBuilder.fromClass(elements, Odd.class);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitClass(ClassTree node, Void p) {
+        checkTypeParameters(node, TreeUtils.elementFromDeclaration(node).getTypeParameters());
+        return super.visitClass(node, p);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void p) {
+        checkTypeParameters(node, TreeUtils.elementFromDeclaration(node).getTypeParameters());
+        return super.visitMethod(node, p);
+    }
+
+    @Override
+    public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+        ExecutableElement method = TreeUtils.elementFromUse(node);
+        if (method != null) {
+            checkTypeParameters(node, method.getTypeParameters());
+            Element enclosing = method.getEnclosingElement();
+            if (enclosing.getKind().isClass() || enclosing.getKind().isInterface()) {
+                checkTypeParameters(node, ((TypeElement) enclosing).getTypeParameters());
+            }
+        }
+        return super.visitMethodInvocation(node, p);
+    }
+
+    /**
+     * Compares the type parameters and annotated uses of the given type parameters created by the
+     * two type factories.
+     *
+     * @param tree the tree to report errors at
+     * @param typeParameters type parameters
+     */
+    private void checkTypeParameters(
+            Tree tree, List<? extends TypeParameterElement> typeParameters) {
+        for (TypeParameterElement typeParameter : typeParameters) {
+            for (int i = 0; i < REPETITIONS; i++) {
+                checkBounds(
+                        tree,
+                        atypeFactory.getAnnotatedType(typeParameter),
+                        getDirectFactory().getAnnotatedType(typeParameter));
+                checkBounds(
+                        tree,
+                        createAnnotatedUse(typeParameter, atypeFactory),
+                        createAnnotatedUse(typeParameter, getDirectFactory()));
+            }
+        }
+    }
+
+    /**
+     * Creates a use of the given type parameter with an {@code @Odd} primary annotation. Its bounds
+     * are initialized by the given type factory.
+     *
+     * @param typeParameter a type parameter
+     * @param factory the type factory to create the use with
+     * @return a use of {@code typeParameter} with an {@code @Odd} primary annotation
+     */
+    private AnnotatedTypeVariable createAnnotatedUse(
+            TypeParameterElement typeParameter, AnnotatedTypeFactory factory) {
+        AnnotatedTypeVariable use =
+                (AnnotatedTypeVariable)
+                        AnnotatedTypeMirror.createType(typeParameter.asType(), factory, false);
+        use.addAnnotation(ODD);
+        use.getUpperBound();
+        return use;
+    }
+
+    /**
+     * Reports an error if the given type variables are not equal, or if their bounds print
+     * differently.
+     *
+     * @param tree the tree to report the error at
+     * @param type a type variable whose bounds may have been copied
+     * @param direct a type variable whose bounds were initialized directly
+     */
+    private void checkBounds(Tree tree, AnnotatedTypeMirror type, AnnotatedTypeMirror direct) {
+        if (!type.equals(direct) || !type.toString(true).equals(direct.toString(true))) {
+            checker.reportError(tree, "bounds.differ", type.toString(true), direct.toString(true));
+        }
+    }
+
+    /**
+     * Returns a type factory for the same type system that does not cache the bounds of type
+     * parameters.
+     *
+     * @return a type factory that initializes all bounds directly
+     */
+    private FlowTestAnnotatedTypeFactory getDirectFactory() {
+        if (directFactory == null) {
+            TypeVariableBoundsChecker boundsChecker = (TypeVariableBoundsChecker) checker;
+            boundsChecker.doNotCache = true;
+            try {
+                directFactory = new FlowTestAnnotatedTypeFactory(checker);
+            } finally {
+                boundsChecker.doNotCache = false;
+            }
+        }
+        return directFactory;
+    }
+}
@@ -0,0 +1,41 @@
+package testlib.unrefinedflow;
+
+import com.sun.source.tree.ExpressionTree;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.framework.flow.CFValue;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/** Type factory that exposes the dataflow results for a tree. */
+public class UnrefinedFlowAnnotatedTypeFactory extends FlowTestAnnotatedTypeFactory {
+
+    public UnrefinedFlowAnnotatedTypeFactory(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    /**
+     * Returns true if dataflow analysis refined the value of {@code tree}.
+     *
+     * @param tree an expression
+     * @return true if the flow result has a refined value for {@code tree}
+     */
+    public boolean hasRefinedValue(ExpressionTree tree) {
+        return flowResult != null && flowResult.hasRefinedValue(tree);
+    }
+
+    /**
+     * Returns the type of {@code tree} without dataflow information, with the inferred value of
+     * {@code tree} applied to it whether or not the value is refined.
+     *
+     * @param tree a field access
+     * @return the type of {@code tree} with its inferred value applied
+     */
+    public AnnotatedTypeMirror getTypeWithInferredValue(ExpressionTree tree) {
+        AnnotatedTypeMirror type = getAnnotatedTypeLhs(tree);
+        CFValue value = getInferredValueFor(tree);
+        if (value != null) {
+            applyInferredAnnotations(type, value);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,16 @@
+package testlib.unrefinedflow;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Checker for the type system of {@link testlib.util.FlowTestChecker}, whose visitor checks the
+ * types of field accesses that dataflow analysis did not refine.
+ */
+public class UnrefinedFlowChecker extends BaseTypeChecker {
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new UnrefinedFlowVisitor(this);
+    }
+}
@@ -0,0 +1,68 @@
+package testlib.unrefinedflow;
+
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.Tree;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * Visitor that checks the type of every field read in a method. It reports a "flow.unrefined"
+ * warning if dataflow analysis did not refine the value of the read. It reports an
+ * "unrefined.type.differs" error if such a read does not have the type computed without dataflow
+ * information, and a "refinement.lost" error if the type of any read differs from the type with
+ * its inferred value applied.
+ */
+public final class UnrefinedFlowVisitor extends BaseTypeVisitor<UnrefinedFlowAnnotatedTypeFactory> {
+
+    public UnrefinedFlowVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected UnrefinedFlowAnnotatedTypeFactory createTypeFactory() {
+        return new UnrefinedFlowAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitIdentifier(IdentifierTree node, Void p) {
+        checkFieldRead(node);
+        return super.visitIdentifier(node, p);
+    }
+
+    @Override
+    public Void visitMemberSelect(MemberSelectTree node, Void p) {
+        checkFieldRead(node);
+        return super.visitMemberSelect(node, p);
+    }
+
+    /**
+     * Checks the type of {@code tree} if it reads a field in a method.
+     *
+     * @param tree an identifier or member select
+     */
+    private void checkFieldRead(ExpressionTree tree) {
+        if (!TreeUtils.isFieldAccess(tree)
+                || TreeUtils.enclosingMethod(getCurrentPath()) == null) {
+            return;
+        }
+        Tree parent = getCurrentPath().getParentPath().getLeaf();
+        if (parent instanceof AssignmentTree && ((AssignmentTree) parent).getVariable() == tree) {
+            return;
+        }
+        AnnotatedTypeMirror type = atypeFactory.getAnnotatedType(tree);
+        if (!type.equals(atypeFactory.getTypeWithInferredValue(tree))) {
+            checker.reportError(tree, "refinement.lost");
+        }
+        if (!atypeFactory.hasRefinedValue(tree)) {
+            checker.reportWarning(tree, "flow.unrefined");
+            if (!type.equals(atypeFactory.getAnnotatedTypeLhs(tree))) {
+                checker.reportError(tree, "unrefined.type.differs");
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.assignmentcheck.AssignmentCheckChecker;
+
+/** Tests which tier decides each assignment check. */
+public class AssignmentCheckTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public AssignmentCheckTest(List<File> testFiles) {
+        super(testFiles, AssignmentCheckChecker.class, "assignmentcheck", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"assignmentcheck"};
+    }
+}
@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.fingerprint.FingerprintChecker;
+
+/** Tests that equal annotated types have equal hash codes. */
+public class FingerprintTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public FingerprintTest(List<File> testFiles) {
+        super(testFiles, FingerprintChecker.class, "fingerprint", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"fingerprint"};
+    }
+}
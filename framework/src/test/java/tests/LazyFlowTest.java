@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.lazyflow.LazyFlowChecker;
+
+/** Tests that flow-refined types are available before the visitor reaches their method. */
+public class LazyFlowTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public LazyFlowTest(List<File> testFiles) {
+        super(testFiles, LazyFlowChecker.class, "lazyflow", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"lazyflow"};
+    }
+}
@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.util.FlowTestChecker;
+
+/** Tests that isSubtype gives the same results as in {@link SubtypeMemoTest} without the memo. */
+public class SubtypeMemoDoNotCacheTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public SubtypeMemoDoNotCacheTest(List<File> testFiles) {
+        super(testFiles, FlowTestChecker.class, "subtypememo", "-Anomsgtext", "-AatfDoNotCache");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"subtypememo"};
+    }
+}
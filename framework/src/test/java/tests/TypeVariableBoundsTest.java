@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.typevarbounds.TypeVariableBoundsChecker;
+
+/** Tests that copies of cached type variable bounds equal bounds that are initialized directly. */
+public class TypeVariableBoundsTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public TypeVariableBoundsTest(List<File> testFiles) {
+        super(testFiles, TypeVariableBoundsChecker.class, "typevarbounds", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"typevarbounds"};
+    }
+}
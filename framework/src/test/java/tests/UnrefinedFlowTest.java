@@ -0,0 +1,21 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.unrefinedflow.UnrefinedFlowChecker;
+
+/** Tests that values that dataflow analysis did not refine have the type from the factory. */
+public class UnrefinedFlowTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public UnrefinedFlowTest(List<File> testFiles) {
+        super(testFiles, UnrefinedFlowChecker.class, "unrefinedflow", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"unrefinedflow"};
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.List;
+import testlib.util.*;
+
+// The checker reports which tier decided each assignment check: (assignment.primitive) and
+// (assignment.declared) if the types are trivially assignable, and (assignment.full) if the full
+// subtype test was needed.
+class AssignmentCheck {
+
+    // Primitive types with the same qualifier.
+    void samePrimitive(int n, @Odd int odd, long l) {
+        // :: warning: (assignment.primitive)
+        int i = n;
+        // :: warning: (assignment.primitive)
+        @Odd int j = odd;
+        // :: warning: (assignment.primitive)
+        long k = l;
+    }
+
+    // Non-generic declared types with the same qualifier.
+    void sameDeclared(String s, @Odd String odd, Integer boxed) {
+        // :: warning: (assignment.declared)
+        String s1 = s;
+        // :: warning: (assignment.declared)
+        Object o = s;
+        // :: warning: (assignment.declared)
+        @Odd CharSequence c = odd;
+        // :: warning: (assignment.declared)
+        Number number = boxed;
+    }
+
+    // Raw types need the full subtype test.
+    @SuppressWarnings("rawtypes")
+    void raw(List raw, List<String> strings) {
+        // :: warning: (assignment.full)
+        List r1 = raw;
+        // :: warning: (assignment.full)
+        List r2 = strings;
+    }
+
+    // Generic types need the full subtype test.
+    void generic(List<String> strings) {
+        // :: warning: (assignment.full)
+        List<String> l = strings;
+    }
+
+    // Different qualifiers need the full subtype test, whether or not it succeeds.
+    void differentQualifiers(int n, @Odd int odd, String s, @Odd String oddString) {
+        // :: warning: (assignment.full)
+        int i = odd;
+        // :: error: (assignment.type.incompatible) :: warning: (assignment.full)
+        @Odd int j = n;
+        // :: warning: (assignment.full)
+        String s1 = oddString;
+        // :: error: (assignment.type.incompatible) :: warning: (assignment.full)
+        @Odd String s2 = s;
+    }
+
+    // Different kinds of types need the full subtype test.
+    void differentKinds(int n, Integer boxed) {
+        // :: warning: (assignment.full)
+        Integer i = n;
+        // :: warning: (assignment.full)
+        int j = boxed;
+    }
+}
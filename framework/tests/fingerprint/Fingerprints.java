@@ -0,0 +1,42 @@
+import java.util.Iterator;
+import java.util.List;
+import testlib.util.*;
+
+// The checker reports (fingerprint.differs) if two equal types have different hash codes.
+class Fingerprints<E extends Enum<E>, T extends Comparable<T>, U extends List<T>> {
+
+    enum Color {
+        RED
+    }
+
+    // Recursive types.
+    void recursive(E e, Enum<Color> color, Class<? extends Enum<?>> enumClass) {
+        E e2 = e;
+        Enum<Color> color2 = color;
+        e.compareTo(e2);
+        color.getDeclaringClass();
+    }
+
+    // Raw and parameterized types.
+    @SuppressWarnings("rawtypes")
+    void raw(List raw, List<String> parameterized, List<@Odd String> odd) {
+        List raw2 = raw;
+        raw2 = parameterized;
+        raw.get(0);
+        odd.get(0);
+    }
+
+    // Captured wildcards.
+    void capture(List<? extends Number> numbers, List<? super Integer> integers) {
+        Iterator<? extends Number> iterator = numbers.iterator();
+        Object o = integers.get(0);
+        numbers.get(0);
+    }
+
+    // Bounds that contain type variables, whose bounds are not part of the fingerprint.
+    void bounds(T t, U u) {
+        U u2 = u;
+        T t2 = u.get(0);
+        t.compareTo(t2);
+    }
+}
@@ -0,0 +1,47 @@
+import testlib.util.*;
+
+// The visitor queries the type of each returned expression before it visits the method, and
+// reports (early.type.differs) if that type is not the flow-refined one.
+class EarlyQuery {
+
+    @Odd String refined(@Odd String param) {
+        String local = "";
+        local = param;
+        return local;
+    }
+
+    @Odd String merged(boolean b, @Odd String p1, @Odd String p2) {
+        String local;
+        if (b) {
+            local = p1;
+        } else {
+            local = p2;
+        }
+        return local;
+    }
+
+    @Odd String notRefined(String param) {
+        String local = param;
+        // :: error: (return.type.incompatible)
+        return local;
+    }
+
+    Object inLambda(@Odd String param) {
+        java.util.function.Supplier<@Odd String> s =
+                () -> {
+                    String local = param;
+                    return local;
+                };
+        return s;
+    }
+
+    Object inLocalClass() {
+        class Local {
+            @Odd String m(@Odd String param) {
+                String local = param;
+                return local;
+            }
+        }
+        return new Local();
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Collection;
+import java.util.List;
+import testlib.util.*;
+
+// The same subtype checks are repeated, so that most of them are answered by the memo of
+// isSubtype; the expected diagnostics are the same with and without -AatfDoNotCache.
+class SubtypeMemo<E extends Enum<E>, T extends Comparable<T>> {
+
+    void primary(String s, @Odd String o) {
+        String s1 = o;
+        String s2 = o;
+        // :: error: (assignment.type.incompatible)
+        @Odd String o1 = s;
+        // :: error: (assignment.type.incompatible)
+        @Odd String o2 = s;
+        @MonotonicOdd String m1 = o;
+        @MonotonicOdd String m2 = o;
+    }
+
+    void typeArguments(List<String> strings, List<@Odd String> odds) {
+        List<String> s1 = strings;
+        List<@Odd String> o1 = odds;
+        // :: error: (assignment.type.incompatible)
+        List<String> s2 = odds;
+        // :: error: (assignment.type.incompatible)
+        List<String> s3 = odds;
+        // :: error: (assignment.type.incompatible)
+        List<@Odd String> o2 = strings;
+        // :: error: (assignment.type.incompatible)
+        List<@Odd String> o3 = strings;
+    }
+
+    void wildcards(List<@Odd String> odds, List<String> strings) {
+        List<? extends String> e1 = odds;
+        List<? extends String> e2 = odds;
+        Collection<? extends @Odd String> c1 = odds;
+        Collection<? extends @Odd String> c2 = odds;
+        // :: error: (assignment.type.incompatible)
+        Collection<? extends @Odd String> c3 = strings;
+        // :: error: (assignment.type.incompatible)
+        Collection<? extends @Odd String> c4 = strings;
+    }
+
+    void typeVariables(E e, @Odd E oddE, T t) {
+        E e1 = oddE;
+        E e2 = oddE;
+        // :: error: (assignment.type.incompatible)
+        @Odd E o1 = e;
+        // :: error: (assignment.type.incompatible)
+        @Odd E o2 = e;
+        Enum<E> enum1 = e;
+        Enum<E> enum2 = e;
+        Comparable<T> c1 = t;
+        Comparable<T> c2 = t;
+    }
+
+    @SuppressWarnings("rawtypes")
+    void raw(List raw, List<String> strings) {
+        List r1 = strings;
+        List r2 = strings;
+        Object o1 = raw;
+        Object o2 = raw;
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import testlib.util.*;
+
+// The checker reports (bounds.differ) if the bounds of a type variable copied from the cache of
+// the type factory differ from bounds that are initialized directly.
+class TypeVariableBounds<E extends Enum<E>, T extends @Odd Comparable<T>> {
+
+    enum Color {
+        RED,
+        GREEN
+    }
+
+    // Recursive bounds of a JDK type parameter, materialized for every invocation.
+    void recursive(E e1, E e2, Color c) {
+        e1.compareTo(e2);
+        e2.compareTo(e1);
+        c.compareTo(Color.GREEN);
+        Color.valueOf(Color.class, "RED");
+        Enum.valueOf(Color.class, "GREEN");
+    }
+
+    // Type variables with primary annotations.
+    void annotated(@Odd E e, @Odd T t, List<@Odd T> ts) {
+        @Odd E e2 = e;
+        t.compareTo(t);
+        ts.add(t);
+        ts.get(0);
+    }
+
+    // Annotations on declared bounds.
+    <S extends @Odd Object, U extends @Odd List<? extends S>> void declared(S s, U u) {
+        u.get(0);
+        u.size();
+        Collections.singletonList(s);
+    }
+
+    // The same JDK type parameter, with an intersection bound, used repeatedly.
+    void intersection(List<String> strings, Comparator<String> comparator) {
+        Collections.max(strings);
+        Collections.max(strings);
+        Collections.max(strings, comparator);
+        Collections.sort(new ArrayList<>(strings));
+    }
+}
@@ -0,0 +1,64 @@
+import testlib.util.*;
+
+// Reads of fields without information in the store have the type from the factory; reads of
+// fields with information in the store have the refined type.
+public class UnrefinedFlow {
+
+    String field;
+
+    @Odd String oddField;
+
+    void unrefined() {
+        // :: warning: (flow.unrefined)
+        String s = field;
+        // :: warning: (flow.unrefined)
+        @Odd String o = oddField;
+        // :: error: (assignment.type.incompatible) :: warning: (flow.unrefined)
+        @Odd String t = this.field;
+    }
+
+    void refined(@Odd String p) {
+        field = p;
+        @Odd String s = field;
+        @Odd String t = this.field;
+    }
+
+    void refinedAcrossMerge(boolean b, @Odd String p, @Odd String q) {
+        if (b) {
+            field = p;
+        } else {
+            field = q;
+        }
+        @Odd String s = field;
+    }
+
+    void unrefinedAfterMerge(boolean b, @Odd String p) {
+        if (b) {
+            field = p;
+        }
+        // :: error: (assignment.type.incompatible) :: warning: (flow.unrefined)
+        @Odd String s = field;
+    }
+
+    // The read is refined in the first iteration, but the back edge drops the refinement.
+    void unrefinedAfterLoop(boolean b, @Odd String p) {
+        field = p;
+        while (b) {
+            // :: error: (assignment.type.incompatible) :: warning: (flow.unrefined)
+            @Odd String s = field;
+            unknown();
+        }
+    }
+
+    // The read is refined in every iteration, although not to @Odd.
+    void refinedInLoop(boolean b, @Odd String p, String q) {
+        field = p;
+        while (b) {
+            // :: error: (assignment.type.incompatible)
+            @Odd String s = field;
+            field = q;
+        }
+    }
+
+    void unknown() {}
+}
@@ -1,5 +1,6 @@
 package org.checkerframework.javacutil;
 
+import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.api.JavacScope;
@@ -20,20 +21,34 @@ import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Name;
 import com.sun.tools.javac.util.Names;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
-import org.checkerframework.checker.nullness.qual.NonNull;
+import javax.lang.model.util.Types;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-/** A Utility class to find symbols corresponding to string references. */
+/**
+ * A Utility class to find symbols corresponding to string references.
+ *
+ * <p>Use {@link #instance} rather than the constructor: the instance returned by {@link #instance}
+ * is shared by all clients in a compilation, so that they share its caches. Resolving a name
+ * requires computing the javac scope of a tree path, which is expensive, and clients such as
+ * {@code FlowExpressionParseUtil} resolve the same names in the same places over and over again.
+ * Therefore, each Resolver caches the environment of recently used tree paths and the results of
+ * recent lookups.
+ */
 // This class reflectively accesses jdk.compiler/com.sun.tools.javac.comp.
 // This is why --add-opens=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED is required when
 // running the Checker Framework.  If this class is re-written, then that --add-opens should be
@@ -44,59 +59,147 @@ public class Resolver {
     private final Trees trees;
     private final Log log;
 
-    private static final Method FIND_METHOD;
-    private static final Method FIND_VAR;
-    private static final Method FIND_IDENT;
-    private static final Method FIND_IDENT_IN_TYPE;
-    private static final Method FIND_IDENT_IN_PACKAGE;
-    private static final Method FIND_TYPE;
+    /** The type utilities, used to compare the types in {@link #resolutionCache} keys. */
+    private final Types types;
+
+    /** The key for the Resolver of a javac context. */
+    private static final Context.Key<Resolver> resolverKey = new Context.Key<>();
+
+    /** Size of {@link #envCache}. */
+    private static final int ENV_CACHE_SIZE = 300;
+
+    /** Size of {@link #resolutionCache}. */
+    private static final int RESOLUTION_CACHE_SIZE = 3000;
+
+    /**
+     * Maps the leaf of a tree path to the environment for the path. A tree appears in only one
+     * path, so the leaf determines the path.
+     */
+    private final Map<Tree, Env<AttrContext>> envCache =
+            CollectionUtils.createLRUCache(ENV_CACHE_SIZE);
+
+    /**
+     * Maps a lookup to its result, which may be null. A key consists of the kind of lookup, the
+     * scope that the lookup depends on, and the arguments of the lookup. The scope is the
+     * environment itself for lookups that depend on local variables, and the enclosing class
+     * otherwise.
+     */
+    private final Map<java.util.List<Object>, @Nullable Element> resolutionCache =
+            CollectionUtils.createLRUCache(RESOLUTION_CACHE_SIZE);
+
+    /**
+     * A type in a {@link #resolutionCache} key. Two keys are equal if their types are the same
+     * according to {@link Types#isSameType}, because javac creates distinct but equal type objects
+     * for the same type.
+     */
+    private final class TypeKey {
+        /** The type. */
+        private final TypeMirror type;
+
+        /**
+         * Creates a key for the given type.
+         *
+         * @param type the type
+         */
+        TypeKey(TypeMirror type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (!(o instanceof TypeKey)) {
+                return false;
+            }
+            TypeMirror other = ((TypeKey) o).type;
+            if (type == other) {
+                return true;
+            }
+            TypeKind kind = type.getKind();
+            // isSameType rejects package and method types.
+            return kind == other.getKind()
+                    && kind != TypeKind.PACKAGE
+                    && kind != TypeKind.EXECUTABLE
+                    && types.isSameType(type, other);
+        }
+
+        @Override
+        public int hashCode() {
+            // Types that are the same have the same kind, and declared types also the same symbol.
+            TypeKind kind = type.getKind();
+            if (kind == TypeKind.DECLARED) {
+                return ((Type) type).tsym.hashCode();
+            }
+            return kind.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return type.toString();
+        }
+    }
+
+    private static final MethodHandle FIND_METHOD;
+    private static final MethodHandle FIND_VAR;
+    private static final MethodHandle FIND_IDENT;
+    private static final MethodHandle FIND_IDENT_IN_TYPE;
+    private static final MethodHandle FIND_IDENT_IN_PACKAGE;
+    private static final MethodHandle FIND_TYPE;
 
     private static final Class<?> ACCESSERROR;
     // Note that currently access(...) is defined in InvalidSymbolError, a superclass of AccessError
-    private static final Method ACCESSERROR_ACCESS;
+    private static final MethodHandle ACCESSERROR_ACCESS;
 
     static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
         try {
             FIND_METHOD =
-                    Resolve.class.getDeclaredMethod(
-                            "findMethod",
-                            Env.class,
-                            Type.class,
-                            Name.class,
-                            List.class,
-                            List.class,
-                            boolean.class,
-                            boolean.class);
-            FIND_METHOD.setAccessible(true);
-
-            FIND_VAR = Resolve.class.getDeclaredMethod("findVar", Env.class, Name.class);
-            FIND_VAR.setAccessible(true);
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod(
+                                    "findMethod",
+                                    Env.class,
+                                    Type.class,
+                                    Name.class,
+                                    List.class,
+                                    List.class,
+                                    boolean.class,
+                                    boolean.class));
+
+            FIND_VAR =
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod("findVar", Env.class, Name.class));
 
             FIND_IDENT =
-                    Resolve.class.getDeclaredMethod(
-                            "findIdent", Env.class, Name.class, KindSelector.class);
-            FIND_IDENT.setAccessible(true);
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod(
+                                    "findIdent", Env.class, Name.class, KindSelector.class));
 
             FIND_IDENT_IN_TYPE =
-                    Resolve.class.getDeclaredMethod(
-                            "findIdentInType",
-                            Env.class,
-                            Type.class,
-                            Name.class,
-                            KindSelector.class);
-            FIND_IDENT_IN_TYPE.setAccessible(true);
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod(
+                                    "findIdentInType",
+                                    Env.class,
+                                    Type.class,
+                                    Name.class,
+                                    KindSelector.class));
 
             FIND_IDENT_IN_PACKAGE =
-                    Resolve.class.getDeclaredMethod(
-                            "findIdentInPackage",
-                            Env.class,
-                            TypeSymbol.class,
-                            Name.class,
-                            KindSelector.class);
-            FIND_IDENT_IN_PACKAGE.setAccessible(true);
-
-            FIND_TYPE = Resolve.class.getDeclaredMethod("findType", Env.class, Name.class);
-            FIND_TYPE.setAccessible(true);
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod(
+                                    "findIdentInPackage",
+                                    Env.class,
+                                    TypeSymbol.class,
+                                    Name.class,
+                                    KindSelector.class));
+
+            FIND_TYPE =
+                    unreflect(
+                            lookup,
+                            Resolve.class.getDeclaredMethod("findType", Env.class, Name.class));
         } catch (Exception e) {
             Error err =
                     new AssertionError(
@@ -107,8 +210,13 @@ public class Resolver {
 
         try {
             ACCESSERROR = Class.forName("com.sun.tools.javac.comp.Resolve$AccessError");
-            ACCESSERROR_ACCESS = ACCESSERROR.getMethod("access", Name.class, TypeSymbol.class);
-            ACCESSERROR_ACCESS.setAccessible(true);
+            ACCESSERROR_ACCESS =
+                    unreflect(
+                            lookup,
+                            ACCESSERROR.getMethod("access", Name.class, TypeSymbol.class));
+        } catch (IllegalAccessException e) {
+            throw new BugInCF(
+                    "Compiler 'Resolve$AccessError' class's 'access' method is not accessible", e);
         } catch (ClassNotFoundException e) {
             throw new BugInCF("Compiler 'Resolve$AccessError' class could not be retrieved.", e);
         } catch (NoSuchMethodException e) {
@@ -118,12 +226,45 @@ public class Resolver {
         }
     }
 
+    /**
+     * Makes the given method accessible and converts it to a method handle.
+     *
+     * @param lookup the lookup object to use
+     * @param method a method
+     * @return a method handle for {@code method}
+     * @throws IllegalAccessException if the method cannot be made accessible
+     */
+    private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method)
+            throws IllegalAccessException {
+        method.setAccessible(true);
+        return lookup.unreflect(method);
+    }
+
     public Resolver(ProcessingEnvironment env) {
         Context context = ((JavacProcessingEnvironment) env).getContext();
         this.resolve = Resolve.instance(context);
         this.names = Names.instance(context);
         this.trees = Trees.instance(env);
         this.log = Log.instance(context);
+        this.types = env.getTypeUtils();
+    }
+
+    /**
+     * Returns the Resolver for the given processing environment, creating it if necessary. All
+     * calls with the same processing environment return the same Resolver, which shares its
+     * caches among all its clients.
+     *
+     * @param env the processing environment
+     * @return the Resolver for {@code env}
+     */
+    public static Resolver instance(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        Resolver instance = context.get(resolverKey);
+        if (instance == null) {
+            instance = new Resolver(env);
+            context.put(resolverKey, instance);
+        }
+        return instance;
     }
 
     /**
@@ -133,6 +274,21 @@ public class Resolver {
      * @return the corresponding attribution environment
      */
     public Env<AttrContext> getEnvForPath(TreePath path) {
+        Env<AttrContext> env = envCache.get(path.getLeaf());
+        if (env == null) {
+            env = computeEnvForPath(path);
+            envCache.put(path.getLeaf(), env);
+        }
+        return env;
+    }
+
+    /**
+     * Computes the environment for the given path.
+     *
+     * @param path the tree path to the local scope
+     * @return the corresponding attribution environment
+     */
+    private Env<AttrContext> computeEnvForPath(TreePath path) {
         TreePath iter = path;
         JavacScope scope = null;
         while (scope == null && iter != null) {
@@ -160,12 +316,39 @@ public class Resolver {
      * @return the {@code PackageSymbol} for the package if it is found, {@code null} otherwise
      */
     public @Nullable PackageSymbol findPackage(String name, TreePath path) {
+        Env<AttrContext> env = getEnvForPath(path);
+        // Packages are looked up in the module of the compilation unit.
+        java.util.List<Object> key = Arrays.asList("findPackage", env.toplevel, name);
+        if (resolutionCache.containsKey(key)) {
+            return (PackageSymbol) resolutionCache.get(key);
+        }
+        PackageSymbol result = findPackage(name, env);
+        resolutionCache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Finds the package with name {@code name}.
+     *
+     * @param name the name of the package
+     * @param env the environment of the local scope
+     * @return the {@code PackageSymbol} for the package if it is found, {@code null} otherwise
+     */
+    private @Nullable PackageSymbol findPackage(String name, Env<AttrContext> env) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT, env, names.fromString(name), Kinds.KindSelector.PCK);
+            Symbol res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT.invoke(
+                                        resolve,
+                                        env,
+                                        names.fromString(name),
+                                        Kinds.KindSelector.PCK);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT, t, env, name);
+            }
             // findIdent will return a PackageSymbol even for a symbol that is not a package,
             // such as a.b.c.MyClass.myStaticField. "exists()" must be called on it to ensure
             // that it exists.
@@ -192,22 +375,57 @@ public class Resolver {
      * @return the element for the field, {@code null} otherwise
      */
     public @Nullable VariableElement findField(String name, TypeMirror type, TreePath path) {
+        Env<AttrContext> env = getEnvForPath(path);
+        // The fields of a type do not depend on its type arguments, and the environment only
+        // matters for access checks.
+        java.util.List<Object> key =
+                Arrays.asList("findField", env.enclClass.sym, ((Type) type).tsym, name);
+        if (resolutionCache.containsKey(key)) {
+            return (VariableElement) resolutionCache.get(key);
+        }
+        VariableElement result = findField(name, type, env);
+        resolutionCache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Finds the field with name {@code name} in a given type.
+     *
+     * @param name the name of the field
+     * @param type the type of the receiver (i.e., the type in which to look for the field)
+     * @param env the environment of the local scope
+     * @return the element for the field, {@code null} otherwise
+     */
+    private @Nullable VariableElement findField(
+            String name, TypeMirror type, Env<AttrContext> env) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT_IN_TYPE,
-                            env,
-                            type,
-                            names.fromString(name),
-                            Kinds.KindSelector.VAR);
+            Symbol res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT_IN_TYPE.invoke(
+                                        resolve,
+                                        env,
+                                        (Type) type,
+                                        names.fromString(name),
+                                        Kinds.KindSelector.VAR);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT_IN_TYPE, t, env, type, name);
+            }
 
             if (res.getKind() == ElementKind.FIELD) {
                 return (VariableElement) res;
             } else if (res.getKind() == ElementKind.OTHER && ACCESSERROR.isInstance(res)) {
                 // Return the inaccessible field that was found
-                return (VariableElement) wrapInvocation(res, ACCESSERROR_ACCESS, null, null);
+                try {
+                    return (VariableElement)
+                            (Symbol)
+                                    ACCESSERROR_ACCESS.invoke(
+                                            res, (Name) null, (TypeSymbol) null);
+                } catch (Throwable t) {
+                    throw reflectionError(ACCESSERROR_ACCESS, t, res);
+                }
             } else {
                 // Most likely didn't find the field and the Element is a SymbolNotFoundError
                 return null;
@@ -226,10 +444,34 @@ public class Resolver {
      */
     public @Nullable VariableElement findLocalVariableOrParameterOrField(
             String name, TreePath path) {
+        Env<AttrContext> env = getEnvForPath(path);
+        // The result depends on the local variables in scope, so the key is the environment.
+        java.util.List<Object> key = Arrays.asList("findVar", env, name);
+        if (resolutionCache.containsKey(key)) {
+            return (VariableElement) resolutionCache.get(key);
+        }
+        VariableElement result = findLocalVariableOrParameterOrField(name, env);
+        resolutionCache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Finds the local variable with name {@code name} in the given scope.
+     *
+     * @param name the name of the local variable
+     * @param env the environment of the local scope
+     * @return the element for the local variable, {@code null} otherwise
+     */
+    private @Nullable VariableElement findLocalVariableOrParameterOrField(
+            String name, Env<AttrContext> env) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-            Element res = wrapInvocationOnResolveInstance(FIND_VAR, env, names.fromString(name));
+            Symbol res;
+            try {
+                res = (Symbol) FIND_VAR.invoke(resolve, env, names.fromString(name));
+            } catch (Throwable t) {
+                throw reflectionError(FIND_VAR, t, env, name);
+            }
             if (res.getKind() == ElementKind.LOCAL_VARIABLE
                     || res.getKind() == ElementKind.PARAMETER
                     || res.getKind() == ElementKind.FIELD) {
@@ -254,10 +496,33 @@ public class Resolver {
      * @return the element for the class
      */
     public Element findClass(String name, TreePath path) {
+        Env<AttrContext> env = getEnvForPath(path);
+        // The result depends on the local classes and type variables in scope, so the key is the
+        // environment.
+        java.util.List<Object> key = Arrays.asList("findClass", env, name);
+        Element result = resolutionCache.get(key);
+        if (result == null) {
+            result = findClass(name, env);
+            resolutionCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the class literal with name {@code name}.
+     *
+     * @param name the name of the class
+     * @param env the environment of the local scope
+     * @return the element for the class
+     */
+    private Element findClass(String name, Env<AttrContext> env) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-            return wrapInvocationOnResolveInstance(FIND_TYPE, env, names.fromString(name));
+            try {
+                return (Symbol) FIND_TYPE.invoke(resolve, env, names.fromString(name));
+            } catch (Throwable t) {
+                throw reflectionError(FIND_TYPE, t, env, name);
+            }
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -272,16 +537,43 @@ public class Resolver {
      * @return the {@code ClassSymbol} for the class if it is found, {@code null} otherwise
      */
     public @Nullable ClassSymbol findClassInPackage(String name, PackageSymbol pck, TreePath path) {
+        Env<AttrContext> env = getEnvForPath(path);
+        // The environment only matters for access checks.
+        java.util.List<Object> key =
+                Arrays.asList("findClassInPackage", env.enclClass.sym, pck, name);
+        if (resolutionCache.containsKey(key)) {
+            return (ClassSymbol) resolutionCache.get(key);
+        }
+        ClassSymbol result = findClassInPackage(name, pck, env);
+        resolutionCache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Finds the class with name {@code name} in a given package.
+     *
+     * @param name the name of the class
+     * @param pck the PackageSymbol for the package
+     * @param env the environment of the local scope
+     * @return the {@code ClassSymbol} for the class if it is found, {@code null} otherwise
+     */
+    private @Nullable ClassSymbol findClassInPackage(
+            String name, PackageSymbol pck, Env<AttrContext> env) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT_IN_PACKAGE,
-                            env,
-                            pck,
-                            names.fromString(name),
-                            Kinds.KindSelector.TYP);
+            Symbol res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT_IN_PACKAGE.invoke(
+                                        resolve,
+                                        env,
+                                        (TypeSymbol) pck,
+                                        names.fromString(name),
+                                        Kinds.KindSelector.TYP);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT_IN_PACKAGE, t, env, pck, name);
+            }
             if (ElementUtils.isClassElement(res)) {
                 return (ClassSymbol) res;
             } else {
@@ -308,10 +600,37 @@ public class Resolver {
             TypeMirror receiverType,
             TreePath path,
             java.util.List<TypeMirror> argumentTypes) {
+        Env<AttrContext> env = getEnvForPath(path);
+        java.util.List<Object> argumentKeys = new ArrayList<>(argumentTypes.size());
+        for (TypeMirror argumentType : argumentTypes) {
+            argumentKeys.add(new TypeKey(argumentType));
+        }
+        java.util.List<Object> key =
+                Arrays.asList(
+                        "findMethod", env, methodName, new TypeKey(receiverType), argumentKeys);
+        Element result = resolutionCache.get(key);
+        if (result == null) {
+            result = findMethod(methodName, receiverType, env, argumentTypes);
+            resolutionCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the method element for a given name and list of expected parameter types.
+     *
+     * @param methodName name of the method to find
+     * @param receiverType type of the receiver of the method
+     * @param env the environment of the local scope
+     * @return the method element (if found)
+     */
+    private Element findMethod(
+            String methodName,
+            TypeMirror receiverType,
+            Env<AttrContext> env,
+            java.util.List<TypeMirror> argumentTypes) {
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
-            Env<AttrContext> env = getEnvForPath(path);
-
             Type site = (Type) receiverType;
             Name name = names.fromString(methodName);
             List<Type> argtypes = List.nil();
@@ -329,15 +648,16 @@ public class Resolver {
                 Object oldContext = getField(resolve, "currentResolutionContext");
                 setField(resolve, "currentResolutionContext", methodContext);
                 Element result =
-                        wrapInvocationOnResolveInstance(
-                                FIND_METHOD,
-                                env,
-                                site,
-                                name,
-                                argtypes,
-                                typeargtypes,
-                                allowBoxing,
-                                useVarargs);
+                        (Symbol)
+                                FIND_METHOD.invoke(
+                                        resolve,
+                                        env,
+                                        site,
+                                        name,
+                                        argtypes,
+                                        typeargtypes,
+                                        allowBoxing,
+                                        useVarargs);
                 setField(resolve, "currentResolutionContext", oldContext);
                 return result;
             } catch (Throwable t) {
@@ -404,23 +724,19 @@ public class Resolver {
         return f.get(receiver);
     }
 
-    /** Wrap a method invocation on the {code resolve} object. */
-    private Symbol wrapInvocationOnResolveInstance(Method method, Object... args) {
-        return wrapInvocation(resolve, method, args);
-    }
-
-    /** Wrap a method invocation. */
-    private Symbol wrapInvocation(Object receiver, Method method, @Nullable Object... args) {
-        try {
-            @SuppressWarnings("nullness") // assume arguments are OK
-            @NonNull Symbol res = (Symbol) method.invoke(receiver, args);
-            return res;
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new BugInCF(
-                    String.format(
-                            "Unexpected Reflection error in wrapInvocation(%s, %s, %s)",
-                            receiver, method, Arrays.toString(args)),
-                    e);
-        }
+    /**
+     * Returns the exception to throw when a reflective invocation fails.
+     *
+     * @param method the method handle that was invoked
+     * @param t the exception thrown by the invocation
+     * @param args the arguments of the invocation, except the receiver
+     * @return the exception to throw
+     */
+    private BugInCF reflectionError(MethodHandle method, Throwable t, @Nullable Object... args) {
+        return new BugInCF(
+                String.format(
+                        "Unexpected Reflection error in invocation of %s(%s)",
+                        method, Arrays.toString(args)),
+                t);
     }
 }